@@ -0,0 +1,306 @@
+package com.github.forax.framework.benchmarks;
+
+import com.github.forax.framework.mapper.JSONWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a bean with 20 properties and a record with 20 components with {@link JSONWriter#toJSON(Object)},
+ * that calls the getters through method handles, and with a reflective baseline that calls
+ * the getters with {@link Method#invoke(Object, Object...)} like JSONWriter did before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class GetterBenchmark {
+  public static class Bean {
+    private int id0;
+    private String name0;
+    private double price0;
+    private boolean available0;
+    private long timestamp0;
+    private int id1;
+    private String name1;
+    private double price1;
+    private boolean available1;
+    private long timestamp1;
+    private int id2;
+    private String name2;
+    private double price2;
+    private boolean available2;
+    private long timestamp2;
+    private int id3;
+    private String name3;
+    private double price3;
+    private boolean available3;
+    private long timestamp3;
+
+    public Bean() { }
+
+    public int getId0() {
+      return id0;
+    }
+    public void setId0(int id0) {
+      this.id0 = id0;
+    }
+    public String getName0() {
+      return name0;
+    }
+    public void setName0(String name0) {
+      this.name0 = name0;
+    }
+    public double getPrice0() {
+      return price0;
+    }
+    public void setPrice0(double price0) {
+      this.price0 = price0;
+    }
+    public boolean isAvailable0() {
+      return available0;
+    }
+    public void setAvailable0(boolean available0) {
+      this.available0 = available0;
+    }
+    public long getTimestamp0() {
+      return timestamp0;
+    }
+    public void setTimestamp0(long timestamp0) {
+      this.timestamp0 = timestamp0;
+    }
+    public int getId1() {
+      return id1;
+    }
+    public void setId1(int id1) {
+      this.id1 = id1;
+    }
+    public String getName1() {
+      return name1;
+    }
+    public void setName1(String name1) {
+      this.name1 = name1;
+    }
+    public double getPrice1() {
+      return price1;
+    }
+    public void setPrice1(double price1) {
+      this.price1 = price1;
+    }
+    public boolean isAvailable1() {
+      return available1;
+    }
+    public void setAvailable1(boolean available1) {
+      this.available1 = available1;
+    }
+    public long getTimestamp1() {
+      return timestamp1;
+    }
+    public void setTimestamp1(long timestamp1) {
+      this.timestamp1 = timestamp1;
+    }
+    public int getId2() {
+      return id2;
+    }
+    public void setId2(int id2) {
+      this.id2 = id2;
+    }
+    public String getName2() {
+      return name2;
+    }
+    public void setName2(String name2) {
+      this.name2 = name2;
+    }
+    public double getPrice2() {
+      return price2;
+    }
+    public void setPrice2(double price2) {
+      this.price2 = price2;
+    }
+    public boolean isAvailable2() {
+      return available2;
+    }
+    public void setAvailable2(boolean available2) {
+      this.available2 = available2;
+    }
+    public long getTimestamp2() {
+      return timestamp2;
+    }
+    public void setTimestamp2(long timestamp2) {
+      this.timestamp2 = timestamp2;
+    }
+    public int getId3() {
+      return id3;
+    }
+    public void setId3(int id3) {
+      this.id3 = id3;
+    }
+    public String getName3() {
+      return name3;
+    }
+    public void setName3(String name3) {
+      this.name3 = name3;
+    }
+    public double getPrice3() {
+      return price3;
+    }
+    public void setPrice3(double price3) {
+      this.price3 = price3;
+    }
+    public boolean isAvailable3() {
+      return available3;
+    }
+    public void setAvailable3(boolean available3) {
+      this.available3 = available3;
+    }
+    public long getTimestamp3() {
+      return timestamp3;
+    }
+    public void setTimestamp3(long timestamp3) {
+      this.timestamp3 = timestamp3;
+    }
+  }
+
+  public record Record(
+      int id0,
+      String name0,
+      double price0,
+      boolean available0,
+      long timestamp0,
+      int id1,
+      String name1,
+      double price1,
+      boolean available1,
+      long timestamp1,
+      int id2,
+      String name2,
+      double price2,
+      boolean available2,
+      long timestamp2,
+      int id3,
+      String name3,
+      double price3,
+      boolean available3,
+      long timestamp3) { }
+
+  /**
+   * The getters of a class called with Method.invoke, the primitive values are boxed
+   * and each call allocates an array of arguments.
+   */
+  private record ReflectiveWriter(String[] keys, Method[] getters) {
+    private static ReflectiveWriter of(Class<?> type) {
+      Method[] getters;
+      String[] names;
+      if (type.isRecord()) {
+        var components = type.getRecordComponents();
+        getters = Arrays.stream(components).map(RecordComponent::getAccessor).toArray(Method[]::new);
+        names = Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new);
+      } else {
+        PropertyDescriptor[] properties;
+        try {
+          properties = Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+          throw new IllegalStateException(e);
+        }
+        Arrays.sort(properties, Comparator.comparing(PropertyDescriptor::getName));
+        getters = Arrays.stream(properties).map(PropertyDescriptor::getReadMethod).toArray(Method[]::new);
+        names = Arrays.stream(properties).map(PropertyDescriptor::getName).toArray(String[]::new);
+      }
+      return new ReflectiveWriter(Arrays.stream(names).map(name -> "\"" + name + "\": ").toArray(String[]::new), getters);
+    }
+
+    private String toJSON(Object object) {
+      var builder = new StringBuilder().append('{');
+      for (var i = 0; i < getters.length; i++) {
+        if (i != 0) {
+          builder.append(", ");
+        }
+        Object value;
+        try {
+          value = getters[i].invoke(object);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+          throw new IllegalStateException(e);
+        }
+        builder.append(keys[i]);
+        if (value instanceof String string) {
+          builder.append('"').append(string).append('"');
+        } else {
+          builder.append(value);
+        }
+      }
+      return builder.append('}').toString();
+    }
+  }
+
+  private final JSONWriter writer = new JSONWriter();
+  private final ReflectiveWriter reflectiveBeanWriter = ReflectiveWriter.of(Bean.class);
+  private final ReflectiveWriter reflectiveRecordWriter = ReflectiveWriter.of(Record.class);
+
+  private Bean bean;
+  private Record record;
+
+  @Setup
+  public void setup() {
+    bean = new Bean();
+    bean.setId0(1);
+    bean.setName0("name");
+    bean.setPrice0(9.99);
+    bean.setAvailable0(true);
+    bean.setTimestamp0(1_700_000_000_000L);
+    bean.setId1(1);
+    bean.setName1("name");
+    bean.setPrice1(9.99);
+    bean.setAvailable1(true);
+    bean.setTimestamp1(1_700_000_000_000L);
+    bean.setId2(1);
+    bean.setName2("name");
+    bean.setPrice2(9.99);
+    bean.setAvailable2(true);
+    bean.setTimestamp2(1_700_000_000_000L);
+    bean.setId3(1);
+    bean.setName3("name");
+    bean.setPrice3(9.99);
+    bean.setAvailable3(true);
+    bean.setTimestamp3(1_700_000_000_000L);
+    record = new Record(1, "name", 9.99, true, 1_700_000_000_000L, 1, "name", 9.99, true, 1_700_000_000_000L, 1, "name", 9.99, true, 1_700_000_000_000L, 1, "name", 9.99, true, 1_700_000_000_000L);
+  }
+
+  @Benchmark
+  public String beanMethodHandles() {
+    return writer.toJSON(bean);
+  }
+
+  @Benchmark
+  public String beanReflection() {
+    return reflectiveBeanWriter.toJSON(bean);
+  }
+
+  @Benchmark
+  public String recordMethodHandles() {
+    return writer.toJSON(record);
+  }
+
+  @Benchmark
+  public String recordReflection() {
+    return reflectiveRecordWriter.toJSON(record);
+  }
+}
@@ -0,0 +1,102 @@
+package com.github.forax.framework.benchmarks;
+
+import com.github.forax.framework.injector.Inject;
+import com.github.forax.framework.injector.InjectorRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up a singleton and a service that depends on a graph of 6 classes,
+ * created by constructor and by setter injection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class InjectorBenchmark {
+  public record Config(String url, int timeout) { }
+
+  public static class Clock {
+    public Clock() { }
+  }
+
+  public static class Repository {
+    private final Config config;
+
+    @Inject
+    public Repository(Config config) {
+      this.config = config;
+    }
+  }
+
+  public static class Cache {
+    private final Repository repository;
+    private final Clock clock;
+
+    @Inject
+    public Cache(Repository repository, Clock clock) {
+      this.repository = repository;
+      this.clock = clock;
+    }
+  }
+
+  public static class Validator {
+    private Config config;
+
+    public Validator() { }
+
+    @Inject
+    public void setConfig(Config config) {
+      this.config = config;
+    }
+  }
+
+  public static class Service {
+    private final Cache cache;
+    private Validator validator;
+
+    @Inject
+    public Service(Cache cache) {
+      this.cache = cache;
+    }
+
+    @Inject
+    public void setValidator(Validator validator) {
+      this.validator = validator;
+    }
+  }
+
+  private final InjectorRegistry registry = new InjectorRegistry();
+
+  @Setup
+  public void setup() {
+    registry.registerInstance(Config.class, new Config("jdbc:h2:mem:", 1_000));
+    registry.registerProviderClass(Clock.class);
+    registry.registerProviderClass(Repository.class);
+    registry.registerProviderClass(Cache.class);
+    registry.registerProviderClass(Validator.class);
+    registry.registerProviderClass(Service.class);
+  }
+
+  @Benchmark
+  public Config lookupSingleton() {
+    return registry.lookupInstance(Config.class);
+  }
+
+  @Benchmark
+  public Service lookupDeepGraph() {
+    return registry.lookupInstance(Service.class);
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.forax.framework.benchmarks;
+
+import org.github.forax.framework.interceptor.InterceptorRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.annotation.Retention;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Calls a method through a proxy with 0, 1 or 5 interceptors, the direct call is the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class InterceptorBenchmark {
+  @Retention(RUNTIME)
+  public @interface Intercepted { }
+
+  public interface Calculator {
+    @Intercepted
+    int add(int a, int b);
+  }
+
+  public static class SimpleCalculator implements Calculator {
+    @Override
+    public int add(int a, int b) {
+      return a + b;
+    }
+  }
+
+  @Param({"0", "1", "5"})
+  public int interceptorCount;
+
+  private final Calculator calculator = new SimpleCalculator();
+  private Calculator proxy;
+  private int value;
+
+  @Setup
+  public void setup() {
+    var registry = new InterceptorRegistry();
+    for (var i = 0; i < interceptorCount; i++) {
+      registry.addInterceptor(Intercepted.class, (instance, method, args, invocation) -> invocation.proceed(instance, method, args));
+    }
+    proxy = registry.createProxy(Calculator.class, calculator);
+  }
+
+  @Benchmark
+  public int direct() {
+    return calculator.add(value++, 1);
+  }
+
+  @Benchmark
+  public int proxy() {
+    return proxy.add(value++, 1);
+  }
+}
@@ -0,0 +1,93 @@
+package com.github.forax.framework.benchmarks;
+
+import com.github.forax.framework.mapper.JSONReader;
+import com.github.forax.framework.mapper.JSONWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Writes and reads an order of 20 items, around 2 KB of JSON, with the text and the binary encodings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+  public record Address(String street, String city, String zipCode, String country) { }
+  public record Item(String sku, String name, int quantity, double price, boolean gift) { }
+  public record Order(long id, String customer, String status, double total, Address shipping, List<Item> items) { }
+
+  private final JSONWriter writer = new JSONWriter();
+  private final JSONWriter generatedWriter = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+  private final JSONReader reader = new JSONReader();
+
+  private Order order;
+  private String json;
+  private byte[] binary;
+
+  @Setup
+  public void setup() {
+    reader.addTypeMatcher(type -> Optional.of(type)
+        .filter(t -> t instanceof Class<?> clazz && clazz.isRecord())
+        .map(t -> JSONReader.ObjectBuilder.record((Class<?>) t)));
+    reader.addTypeMatcher(type -> Optional.of(type)
+        .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+        .filter(t -> t.getRawType() == List.class)
+        .map(t -> JSONReader.ObjectBuilder.list(t.getActualTypeArguments()[0])));
+
+    var items = IntStream.range(0, 20)
+        .mapToObj(i -> new Item("SKU-" + (100_000 + i), "item number " + i + " \"deluxe\"", 1 + i % 4, 9.99 + i, i % 7 == 0))
+        .toList();
+    var total = items.stream().mapToDouble(item -> item.quantity() * item.price()).sum();
+    order = new Order(1_234_567_890_123L, "Zoé Martin", "SHIPPED", total,
+        new Address("12 rue de la Paix", "Paris", "75002", "France"), items);
+    json = writer.toJSON(order);
+    binary = writer.toBinary(order);
+  }
+
+  @Benchmark
+  public String toJSON() {
+    return writer.toJSON(order);
+  }
+
+  @Benchmark
+  public String toJSONGeneratedSerializers() {
+    return generatedWriter.toJSON(order);
+  }
+
+  @Benchmark
+  public Object parseJSON() {
+    return reader.parseJSON(json, Order.class);
+  }
+
+  @Benchmark
+  public Object projectJSON() {
+    return reader.projectJSON(json, Order.class, "id", "total");
+  }
+
+  @Benchmark
+  public byte[] toBinary() {
+    return writer.toBinary(order);
+  }
+
+  @Benchmark
+  public Object parseBinary() {
+    return reader.parseBinary(binary, Order.class);
+  }
+}
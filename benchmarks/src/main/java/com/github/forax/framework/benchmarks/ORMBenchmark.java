@@ -0,0 +1,103 @@
+package com.github.forax.framework.benchmarks;
+
+import com.github.forax.framework.orm.Id;
+import com.github.forax.framework.orm.ORM;
+import com.github.forax.framework.orm.Repository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls findAll() and save() of a repository on an in-memory H2 database.
+ * Each call runs in its own transaction, the cost of an empty transaction is the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ORMBenchmark {
+  public static class Product {
+    private Long id;
+    private String name;
+    private int stock;
+
+    public Product() { }
+
+    public Product(Long id, String name, int stock) {
+      this.id = id;
+      this.name = name;
+      this.stock = stock;
+    }
+
+    @Id
+    public Long getId() {
+      return id;
+    }
+    public void setId(Long id) {
+      this.id = id;
+    }
+    public String getName() {
+      return name;
+    }
+    public void setName(String name) {
+      this.name = name;
+    }
+    public int getStock() {
+      return stock;
+    }
+    public void setStock(int stock) {
+      this.stock = stock;
+    }
+  }
+
+  public interface ProductRepository extends Repository<Product, Long> { }
+
+  @Param({"10", "1000"})
+  public int rowCount;
+
+  private final JdbcDataSource dataSource = new JdbcDataSource();
+  private final ProductRepository repository = ORM.createRepository(ProductRepository.class);
+  private int stock;
+
+  @Setup
+  public void setup() throws SQLException {
+    dataSource.setURL("jdbc:h2:mem:benchmark" + rowCount + ";DB_CLOSE_DELAY=-1");
+    ORM.transaction(dataSource, () -> {
+      ORM.createTable(Product.class);
+      for (var i = 0; i < rowCount; i++) {
+        repository.save(new Product((long) i, "product " + i, i));
+      }
+    });
+  }
+
+  @Benchmark
+  public void transaction() throws SQLException {
+    ORM.transaction(dataSource, () -> {});
+  }
+
+  @Benchmark
+  public void findAll(Blackhole blackhole) throws SQLException {
+    ORM.transaction(dataSource, () -> blackhole.consume(repository.findAll()));
+  }
+
+  @Benchmark
+  public void save(Blackhole blackhole) throws SQLException {
+    // update an existing row, so the size of the table does not change
+    ORM.transaction(dataSource, () -> blackhole.consume(repository.save(new Product(0L, "product 0", stock++))));
+  }
+}
@@ -0,0 +1,83 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a 5 KB and a 50 KB payload with the hand written lexer of {@link ToyJSONParser} and with
+ * the regex lexer it replaced ({@link RegexJSONParser}), the visitor only counts the values.
+ * The payload only uses the syntax recognized by the regex lexer, no escape, no negative number
+ * and no new line.
+ * The benchmark is in the package of the mapper because the parser is not public.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+  @Param({"5", "50"})
+  public int kiloBytes;
+
+  private String payload;
+  private int valueCount;
+  private final JSONVisitor visitor = new JSONVisitor() {
+    @Override
+    public void value(String key, Object value) {
+      valueCount++;
+    }
+    @Override
+    public void startObject(String key) {}
+    @Override
+    public void endObject(String key) {}
+    @Override
+    public void startArray(String key) {}
+    @Override
+    public void endArray(String key) {}
+  };
+
+  static String payload(int size) {
+    var joiner = new StringJoiner(", ", "[", "]");
+    var length = 2;
+    for (var i = 0; length < size; i++) {
+      var item = "{ \"id\": " + i + ", \"name\": \"item number " + i + "\", \"price\": " + (i % 100) + ".99"
+          + ", \"available\": " + (i % 3 != 0) + ", \"tags\": [ \"tag" + (i % 7) + "\", \"tag" + (i % 11) + "\" ], \"parent\": null }";
+      joiner.add(item);
+      length += item.length() + 2;
+    }
+    return joiner.toString();
+  }
+
+  @Setup
+  public void setup() {
+    payload = payload(kiloBytes * 1_024);
+  }
+
+  @Benchmark
+  public int regexLexer() {
+    valueCount = 0;
+    RegexJSONParser.parse(payload, visitor);
+    return valueCount;
+  }
+
+  @Benchmark
+  public int handWrittenLexer() {
+    valueCount = 0;
+    ToyJSONParser.parse(payload, visitor);
+    return valueCount;
+  }
+}
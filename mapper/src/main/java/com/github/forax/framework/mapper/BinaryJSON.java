@@ -0,0 +1,309 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A compact binary encoding of the JSON values, written by {@link Sink.BinarySink}.
+ *
+ * Each value starts with a one byte tag
+ * <ul>
+ *   <li>{@link #NULL}, {@link #FALSE} and {@link #TRUE} are the tag alone,
+ *   <li>{@link #INTEGER} is followed by the value zigzag encoded as a varint
+ *       (7 bits per byte, the least significant group first, the high bit set if another byte follows),
+ *   <li>{@link #DOUBLE} is followed by the 8 bytes of the IEEE 754 representation in big endian,
+ *   <li>{@link #STRING} is followed by the number of bytes as a varint then the bytes of the string in UTF-8,
+ *   <li>{@link #START_OBJECT} is followed by the properties, a {@link #STRING} key then a value,
+ *       and {@link #END_OBJECT},
+ *   <li>{@link #START_ARRAY} is followed by the elements and {@link #END_ARRAY}.
+ * </ul>
+ * The objects and the arrays are not prefixed by their size so they can be written in one pass,
+ * like the JSON text. Like the JSON text, the top-level value is an object or an array.
+ *
+ * @see #parse(byte[], JSONVisitor)
+ */
+final class BinaryJSON {
+  static final byte NULL = 0;
+  static final byte FALSE = 1;
+  static final byte TRUE = 2;
+  static final byte INTEGER = 3;
+  static final byte DOUBLE = 4;
+  static final byte STRING = 5;
+  static final byte START_OBJECT = 6;
+  static final byte END_OBJECT = 7;
+  static final byte START_ARRAY = 8;
+  static final byte END_ARRAY = 9;
+
+  private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private BinaryJSON() {
+    throw new AssertionError();
+  }
+
+  /**
+   * A cursor on the bytes of the input.
+   */
+  private static final class Input {
+    private final byte[] bytes;
+    private final int maxDepth;
+    private int index;
+    /**
+     * The index of the last key read in its key table, -1 if it is not found.
+     */
+    private int keyIndex = -1;
+
+    private Input(byte[] bytes, int maxDepth) {
+      this.bytes = bytes;
+      this.maxDepth = maxDepth;
+    }
+
+    private void checkDepth(int depth) {
+      if (depth == maxDepth) {
+        throw error("maximum depth " + maxDepth + " exceeded");
+      }
+    }
+
+    private IllegalStateException error(String message) {
+      return new IllegalStateException(message + " at index " + index);
+    }
+
+    private void ensure(int length) {
+      if (length < 0 || length > bytes.length - index) {
+        throw error("truncated input");
+      }
+    }
+
+    private byte tag() {
+      ensure(1);
+      return bytes[index++];
+    }
+
+    private long varint() {
+      var value = 0L;
+      for(var shift = 0; shift < 64; shift += 7) {
+        var b = tag();
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw error("invalid varint");
+    }
+
+    private long longValue() {
+      var value = varint();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private double doubleValue() {
+      ensure(8);
+      var value = Double.longBitsToDouble((long) LONG_VIEW.get(bytes, index));
+      index += 8;
+      return value;
+    }
+
+    /**
+     * Returns the length of the string, the bytes of the string start at {@link #index}.
+     */
+    private int stringLength() {
+      var length = varint();
+      if (length < 0 || length > bytes.length - index) {
+        throw error("truncated input");
+      }
+      return (int) length;
+    }
+
+    private String string() {
+      return string(stringLength());
+    }
+
+    private String string(int length) {
+      var text = new String(bytes, index, length, StandardCharsets.UTF_8);
+      index += length;
+      return text;
+    }
+
+    private String key(KeyTable keyTable) {
+      if (tag() != STRING) {
+        index--;
+        throw error("invalid key");
+      }
+      var length = stringLength();
+      keyIndex = keyTable == null? -1: keyTable.findIndex(bytes, index, index + length);
+      if (keyIndex != -1) {
+        index += length;
+        return keyTable.key(keyIndex);
+      }
+      return string(length);
+    }
+
+    /**
+     * Skips the value starting with the tag, the nested objects and arrays are skipped without
+     * calling the visitor and without recursion, a key being encoded as a string, the content
+     * of an object is skipped like the content of an array, only the nesting is counted.
+     */
+    private void skipValue(byte tag) {
+      var depth = 0;
+      for(;;) {
+        switch (tag) {
+          case NULL, FALSE, TRUE -> {}
+          case INTEGER -> varint();
+          case DOUBLE -> {
+            ensure(8);
+            index += 8;
+          }
+          case STRING -> index += stringLength();
+          case START_OBJECT, START_ARRAY -> depth++;
+          case END_OBJECT, END_ARRAY -> {
+            if (depth == 0) {
+              throw invalidTag(tag);
+            }
+            depth--;
+          }
+          default -> throw invalidTag(tag);
+        }
+        if (depth == 0) {
+          return;
+        }
+        tag = tag();
+      }
+    }
+
+    private IllegalStateException invalidTag(byte tag) {
+      index--;
+      return error("invalid tag " + tag);
+    }
+  }
+
+  /**
+   * Parse the binary encoding of a JSON value and calls the visitor methods
+   * when an array, an object or a value is parsed.
+   *
+   * @param bytes the binary encoding
+   * @param visitor the visitor to call when parsing
+   * @throws IllegalStateException if the encoding is invalid or truncated
+   */
+  static void parse(byte[] bytes, JSONVisitor visitor) {
+    parse(bytes, visitor, ToyJSONParser.DEFAULT_MAX_DEPTH, Long.MAX_VALUE);
+  }
+
+  /**
+   * Parse the binary encoding of a JSON value like {@link #parse(byte[], JSONVisitor)} but rejects
+   * an encoding larger than maxSize bytes before parsing it and a value nested deeper than maxDepth.
+   * The objects and the arrays being parsed are on an explicit stack and not on the Java stack,
+   * so a deeply nested value does not consume stack frames.
+   *
+   * @param bytes the binary encoding
+   * @param visitor the visitor to call when parsing
+   * @param maxDepth the maximum nesting depth of the objects and the arrays
+   * @param maxSize the maximum size of the encoding in bytes
+   * @throws IllegalStateException if the encoding is invalid, truncated, too deep or too large
+   */
+  static void parse(byte[] bytes, JSONVisitor visitor, int maxDepth, long maxSize) {
+    if (bytes.length > maxSize) {
+      throw new IllegalStateException("encoding too large, " + bytes.length + " > " + maxSize);
+    }
+    var input = new Input(bytes, maxDepth);
+    var tag = input.tag();
+    if (tag != START_OBJECT && tag != START_ARRAY) {
+      throw input.invalidTag(tag);
+    }
+    // for each enclosing value, true if it is an object, its key, the index of its key
+    // and the key table of the object
+    var objects = new boolean[16];
+    var keys = new String[16];
+    var keyIndexes = new int[16];
+    var keyTables = new KeyTable[16];
+    var depth = 0;
+    String key = null;
+    var keyIndex = -1;
+    for(;;) {
+      // visit the value of the key
+      switch (tag) {
+        case START_OBJECT, START_ARRAY -> {
+          input.checkDepth(depth);
+          if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth << 1);
+            keys = Arrays.copyOf(keys, depth << 1);
+            keyIndexes = Arrays.copyOf(keyIndexes, depth << 1);
+            keyTables = Arrays.copyOf(keyTables, depth << 1);
+          }
+          var object = tag == START_OBJECT;
+          if (object) {
+            visitor.startObject(key, keyIndex);
+          } else {
+            visitor.startArray(key, keyIndex);
+          }
+          objects[depth] = object;
+          keys[depth] = key;
+          keyIndexes[depth] = keyIndex;
+          keyTables[depth] = object? visitor.keyTable(): null;
+          depth++;
+        }
+        default -> parseScalar(key, keyIndex, tag, input, visitor);
+      }
+
+      // find the next value to visit, ending the objects and the arrays on the way
+      for(;;) {
+        if (depth == 0) {
+          if (input.index != bytes.length) {
+            throw input.error("trailing bytes");
+          }
+          return;
+        }
+        tag = input.tag();
+        if (objects[depth - 1]) {
+          if (tag == END_OBJECT) {
+            depth--;
+            visitor.endObject(keys[depth], keyIndexes[depth]);
+            keys[depth] = null;
+            keyTables[depth] = null;
+            continue;
+          }
+          input.index--;
+          key = input.key(keyTables[depth - 1]);
+          keyIndex = input.keyIndex;
+          tag = input.tag();
+          if (!visitor.accept(key, keyIndex)) {
+            input.skipValue(tag);
+            continue;
+          }
+          break;
+        }
+        if (tag == END_ARRAY) {
+          depth--;
+          visitor.endArray(keys[depth], keyIndexes[depth]);
+          keys[depth] = null;
+          continue;
+        }
+        key = null;
+        keyIndex = -1;
+        break;
+      }
+    }
+  }
+
+  private static void parseScalar(String currentKey, int keyIndex, byte tag, Input input, JSONVisitor visitor) {
+    switch (tag) {
+      case NULL -> visitor.value(currentKey, keyIndex, null);
+      case FALSE -> visitor.value(currentKey, keyIndex, false);
+      case TRUE -> visitor.value(currentKey, keyIndex, true);
+      case INTEGER -> {
+        var value = input.longValue();
+        if (value == (int) value) {
+          visitor.value(currentKey, keyIndex, (int) value);
+        } else {
+          visitor.value(currentKey, keyIndex, value);
+        }
+      }
+      case DOUBLE -> visitor.value(currentKey, keyIndex, input.doubleValue());
+      case STRING -> visitor.value(currentKey, keyIndex, input.string());
+      default -> throw input.invalidTag(tag);
+    }
+  }
+}
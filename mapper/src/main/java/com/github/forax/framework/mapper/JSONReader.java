@@ -1,31 +1,169 @@
 package com.github.forax.framework.mapper;
 
 import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.invoke.MethodType.methodType;
 
 public class JSONReader {
-  private record BeanData(Constructor<?> constructor, Map<String, PropertyDescriptor> propertyMap) {
-    PropertyDescriptor findProperty(String key) {
+  private static final Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * A writable property of a bean, the setter is also available as method handles adapted
+   * to take an int, a long, a double or a boolean, so primitive values do not need to be boxed.
+   * A method handle is null if the setter parameter type can not be converted from this type.
+   * The generic type of the value is resolved once.
+   */
+  private record Property(Method setter, Type type, MethodHandle objectSetter,
+                          MethodHandle intSetter, MethodHandle longSetter,
+                          MethodHandle doubleSetter, MethodHandle booleanSetter) {
+    private static Property of(Method setter) {
+      var mh = Utils.unreflect(LOOKUP, setter);
+      var objectSetter = setter.getParameterTypes()[0].isPrimitive()? null: adapt(mh, Object.class);
+      return new Property(setter, setter.getGenericParameterTypes()[0], objectSetter,
+          adapt(mh, int.class), adapt(mh, long.class), adapt(mh, double.class), adapt(mh, boolean.class));
+    }
+
+    private static MethodHandle adapt(MethodHandle mh, Class<?> valueType) {
+      try {
+        return mh.asType(methodType(void.class, Object.class, valueType));
+      } catch (WrongMethodTypeException e) {
+        return null;
+      }
+    }
+
+    private void set(Object instance, Object value) {
+      if (objectSetter == null) {  // use reflection to unbox and widen the value
+        Utils.invokeMethod(instance, setter, toFloatIfNeeded(value, setter.getParameterTypes()[0]));
+        return;
+      }
+      try {
+        objectSetter.invokeExact(instance, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private void set(Object instance, int value) {
+      if (intSetter == null) {
+        set(instance, (Object) value);
+        return;
+      }
+      try {
+        intSetter.invokeExact(instance, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private void set(Object instance, long value) {
+      if (longSetter == null) {
+        set(instance, (Object) value);
+        return;
+      }
+      try {
+        longSetter.invokeExact(instance, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private void set(Object instance, double value) {
+      if (doubleSetter == null) {
+        set(instance, (Object) value);
+        return;
+      }
+      try {
+        doubleSetter.invokeExact(instance, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+
+    private void set(Object instance, boolean value) {
+      if (booleanSetter == null) {
+        set(instance, (Object) value);
+        return;
+      }
+      try {
+        booleanSetter.invokeExact(instance, value);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * A JSON floating point number is decoded as a double, so it has to be narrowed
+   * to be stored in a float, the other conversions are widening conversions done by reflection.
+   */
+  private static Object toFloatIfNeeded(Object value, Class<?> type) {
+    if (type == float.class && value instanceof Double doubleValue) {
+      return doubleValue.floatValue();
+    }
+    return value;
+  }
+
+  /**
+   * The properties of a bean, the properties of the array are in the iteration order of the keys of the map,
+   * so the index of a key in the keys is the index of its property in the array.
+   */
+  private record BeanData(Constructor<?> constructor, Property[] properties, Map<String, Property> propertyMap) {
+    Property findProperty(String key) {
       var property = propertyMap.get(key);
       if (property == null) {
         throw new IllegalStateException("unknown key " + key + " for bean " + constructor.getDeclaringClass().getName());
       }
       return property;
     }
+
+    Property findProperty(String key, int keyIndex) {
+      return keyIndex == -1? findProperty(key): properties[keyIndex];
+    }
   }
 
   private static final ClassValue<BeanData> BEAN_DATA_CLASS_VALUE = new ClassValue<>() {
@@ -34,18 +172,129 @@ public class JSONReader {
       var beanInfo = Utils.beanInfo(type);
       var constructor = Utils.defaultConstructor(type);
       var map = Arrays.stream(beanInfo.getPropertyDescriptors())
-          .filter(property -> !property.getName().equals("class"))
-          .collect(Collectors.toMap(PropertyDescriptor::getName, Function.identity()));
-      return new BeanData(constructor, map);
+          .filter(property -> !property.getName().equals("class") && property.getWriteMethod() != null)
+          .collect(Collectors.toMap(PropertyDescriptor::getName, property -> Property.of(property.getWriteMethod()),
+              (first, second) -> { throw new AssertionError(); }, LinkedHashMap::new));
+      return new BeanData(constructor, map.values().toArray(Property[]::new), map);
+    }
+  };
+
+  private static final ClassValue<ObjectBuilder<Object[]>> RECORD_BUILDER_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected ObjectBuilder<Object[]> computeValue(Class<?> recordClass) {
+      var components = recordClass.getRecordComponents();
+      var map = IntStream.range(0, components.length)  // the index of a key is the index of its component
+          .boxed()
+          .collect(Collectors.toMap(i -> components[i].getName(), Function.identity(),
+              (first, second) -> { throw new AssertionError(); }, LinkedHashMap::new));
+      var genericTypes = Arrays.stream(components).map(RecordComponent::getGenericType).toArray(Type[]::new);
+      var constructor = Utils.canonicalConstructor(recordClass, components);
+      var defaultValues = Arrays.stream(components)  // a missing component is zero, false or null
+          .map(component -> component.getType().isPrimitive()? Array.get(Array.newInstance(component.getType(), 1), 0): null)
+          .toArray();
+      return new ObjectBuilder<>(
+          key -> genericTypes[map.get(key)],
+          defaultValues::clone,
+          new ObjectBuilder.Populater<>() {
+            @Override
+            public void populate(Object[] array, String key, Object value) {
+              populate(array, key, -1, value);
+            }
+
+            @Override
+            public void populate(Object[] array, String key, int keyIndex, Object value) {
+              var index = keyIndex == -1? map.get(key): keyIndex;
+              array[index] = toFloatIfNeeded(value, components[index].getType());
+            }
+
+            @Override
+            public void populate(Object[] array, String key, int keyIndex, int value) {
+              populate(array, key, keyIndex, (Object) value);
+            }
+
+            @Override
+            public void populate(Object[] array, String key, int keyIndex, long value) {
+              populate(array, key, keyIndex, (Object) value);
+            }
+
+            @Override
+            public void populate(Object[] array, String key, int keyIndex, double value) {
+              populate(array, key, keyIndex, (Object) value);
+            }
+
+            @Override
+            public void populate(Object[] array, String key, int keyIndex, boolean value) {
+              populate(array, key, keyIndex, (Object) value);
+            }
+          },
+          array -> Utils.newInstance(constructor, array),
+          Optional.of(map.keySet())
+      );
     }
   };
 
+  /**
+   * Creates the Java object corresponding to a JSON object or a JSON array.
+   *
+   * @param typeProvider the type of the value of a key.
+   * @param supplier creates a new mutable instance.
+   * @param populater sets the value of a key of the mutable instance.
+   * @param finisher returns the Java object from the mutable instance.
+   * @param keys the keys known by the builder if they are known,
+   *             used by {@link JSONReader#projectJSON(String, Type, String...)} to skip the other keys.
+   *             The position of a key in the iteration order of the set is the index of the key
+   *             sent to the populater.
+   * @param <T> type of the mutable instance.
+   */
   public record ObjectBuilder<T>(Function<? super String, ? extends Type> typeProvider,
                                  Supplier<? extends T> supplier,
                                  Populater<? super T> populater,
-                                 Function<? super T, ?> finisher) {
+                                 Function<? super T, ?> finisher,
+                                 Optional<Set<String>> keys) {
     public interface Populater<T> {
       void populate(T instance, String key, Object value);
+
+      default void populate(T instance, String key, int value) {
+        populate(instance, key, (Object) value);
+      }
+
+      default void populate(T instance, String key, long value) {
+        populate(instance, key, (Object) value);
+      }
+
+      default void populate(T instance, String key, double value) {
+        populate(instance, key, (Object) value);
+      }
+
+      default void populate(T instance, String key, boolean value) {
+        populate(instance, key, (Object) value);
+      }
+
+      /**
+       * Called instead of {@link #populate(Object, String, Object)} with the index of the key,
+       * the position of the key in the iteration order of the {@link ObjectBuilder#keys() keys},
+       * so the value can be stored without a lookup on the key.
+       * The index is -1 if the key is not found by the parser, by example if it contains an escape sequence.
+       */
+      default void populate(T instance, String key, int keyIndex, Object value) {
+        populate(instance, key, value);
+      }
+
+      default void populate(T instance, String key, int keyIndex, int value) {
+        populate(instance, key, value);
+      }
+
+      default void populate(T instance, String key, int keyIndex, long value) {
+        populate(instance, key, value);
+      }
+
+      default void populate(T instance, String key, int keyIndex, double value) {
+        populate(instance, key, value);
+      }
+
+      default void populate(T instance, String key, int keyIndex, boolean value) {
+        populate(instance, key, value);
+      }
     }
 
     public ObjectBuilder {
@@ -53,19 +302,78 @@ public class JSONReader {
       Objects.requireNonNull(supplier);
       Objects.requireNonNull(populater);
       Objects.requireNonNull(finisher);
+      Objects.requireNonNull(keys);
+    }
+
+    /**
+     * Creates an object builder that accepts any key.
+     */
+    public ObjectBuilder(Function<? super String, ? extends Type> typeProvider,
+                         Supplier<? extends T> supplier,
+                         Populater<? super T> populater,
+                         Function<? super T, ?> finisher) {
+      this(typeProvider, supplier, populater, finisher, Optional.empty());
     }
 
     public static ObjectBuilder<Object> bean(Class<?> beanClass) {
       Objects.requireNonNull(beanClass);
       var beanData = BEAN_DATA_CLASS_VALUE.get(beanClass);
       return new ObjectBuilder<>(
-          key -> beanData.findProperty(key).getWriteMethod().getGenericParameterTypes()[0],
+          key -> beanData.findProperty(key).type,
           () -> Utils.newInstance(beanData.constructor),
-          (instance, key, value) -> {
-            var property = beanData.findProperty(key);
-            Utils.invokeMethod(instance, property.getWriteMethod(), value);
+          new Populater<>() {
+            @Override
+            public void populate(Object instance, String key, Object value) {
+              beanData.findProperty(key).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, int keyIndex, Object value) {
+              beanData.findProperty(key, keyIndex).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, int value) {
+              beanData.findProperty(key).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, int keyIndex, int value) {
+              beanData.findProperty(key, keyIndex).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, long value) {
+              beanData.findProperty(key).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, int keyIndex, long value) {
+              beanData.findProperty(key, keyIndex).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, double value) {
+              beanData.findProperty(key).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, int keyIndex, double value) {
+              beanData.findProperty(key, keyIndex).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, boolean value) {
+              beanData.findProperty(key).set(instance, value);
+            }
+
+            @Override
+            public void populate(Object instance, String key, int keyIndex, boolean value) {
+              beanData.findProperty(key, keyIndex).set(instance, value);
+            }
           },
-          Function.identity()
+          Function.identity(),
+          Optional.of(beanData.propertyMap.keySet())
       );
     }
 
@@ -79,19 +387,160 @@ public class JSONReader {
       );
     }
 
+    private static final class IntArrayBuffer {
+      private int[] array = new int[16];
+      private int size;
+
+      private void add(int value) {
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size << 1);
+        }
+        array[size++] = value;
+      }
+
+      private int[] toArray() {
+        return Arrays.copyOf(array, size);
+      }
+    }
+
+    private static final class LongArrayBuffer {
+      private long[] array = new long[16];
+      private int size;
+
+      private void add(long value) {
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size << 1);
+        }
+        array[size++] = value;
+      }
+
+      private long[] toArray() {
+        return Arrays.copyOf(array, size);
+      }
+    }
+
+    private static final class DoubleArrayBuffer {
+      private double[] array = new double[16];
+      private int size;
+
+      private void add(double value) {
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size << 1);
+        }
+        array[size++] = value;
+      }
+
+      private double[] toArray() {
+        return Arrays.copyOf(array, size);
+      }
+    }
+
+    private static IllegalStateException invalidElement(Object value, Class<?> arrayType) {
+      return new IllegalStateException("invalid element " + value + " for an array " + arrayType.getSimpleName());
+    }
+
+    private static final ObjectBuilder<IntArrayBuffer> INT_ARRAY = new ObjectBuilder<>(
+        key -> int.class,
+        IntArrayBuffer::new,
+        new Populater<>() {
+          @Override
+          public void populate(IntArrayBuffer buffer, String key, Object value) {
+            if (!(value instanceof Integer element)) {
+              throw invalidElement(value, int[].class);
+            }
+            buffer.add(element);
+          }
+
+          @Override
+          public void populate(IntArrayBuffer buffer, String key, int value) {
+            buffer.add(value);
+          }
+        },
+        IntArrayBuffer::toArray
+    );
+
+    private static final ObjectBuilder<LongArrayBuffer> LONG_ARRAY = new ObjectBuilder<>(
+        key -> long.class,
+        LongArrayBuffer::new,
+        new Populater<>() {
+          @Override
+          public void populate(LongArrayBuffer buffer, String key, Object value) {
+            if (!(value instanceof Integer || value instanceof Long)) {
+              throw invalidElement(value, long[].class);
+            }
+            buffer.add(((Number) value).longValue());
+          }
+
+          @Override
+          public void populate(LongArrayBuffer buffer, String key, int value) {
+            buffer.add(value);
+          }
+
+          @Override
+          public void populate(LongArrayBuffer buffer, String key, long value) {
+            buffer.add(value);
+          }
+        },
+        LongArrayBuffer::toArray
+    );
+
+    private static final ObjectBuilder<DoubleArrayBuffer> DOUBLE_ARRAY = new ObjectBuilder<>(
+        key -> double.class,
+        DoubleArrayBuffer::new,
+        new Populater<>() {
+          @Override
+          public void populate(DoubleArrayBuffer buffer, String key, Object value) {
+            if (!(value instanceof Integer || value instanceof Long || value instanceof Double)) {
+              throw invalidElement(value, double[].class);
+            }
+            buffer.add(((Number) value).doubleValue());
+          }
+
+          @Override
+          public void populate(DoubleArrayBuffer buffer, String key, int value) {
+            buffer.add(value);
+          }
+
+          @Override
+          public void populate(DoubleArrayBuffer buffer, String key, long value) {
+            buffer.add(value);
+          }
+
+          @Override
+          public void populate(DoubleArrayBuffer buffer, String key, double value) {
+            buffer.add(value);
+          }
+        },
+        DoubleArrayBuffer::toArray
+    );
+
+    /**
+     * Returns an object builder that decodes a JSON array of integers into an {@code int[]}.
+     * The elements are stored in a growable {@code int[]}, trimmed once when the array ends.
+     */
+    public static ObjectBuilder<?> intArray() {
+      return INT_ARRAY;
+    }
+
+    /**
+     * Returns an object builder that decodes a JSON array of integers into a {@code long[]}.
+     * The elements are stored in a growable {@code long[]}, trimmed once when the array ends.
+     */
+    public static ObjectBuilder<?> longArray() {
+      return LONG_ARRAY;
+    }
+
+    /**
+     * Returns an object builder that decodes a JSON array of numbers into a {@code double[]}.
+     * The elements are stored in a growable {@code double[]}, trimmed once when the array ends.
+     */
+    public static ObjectBuilder<?> doubleArray() {
+      return DOUBLE_ARRAY;
+    }
+
     public static ObjectBuilder<Object[]> record(Class<?> recordClass) {
       Objects.requireNonNull(recordClass);
-      var components = recordClass.getRecordComponents();
-      var map = IntStream.range(0, components.length)
-          .boxed()
-          .collect(Collectors.toMap(i -> components[i].getName(), Function.identity()));
-      var constructor = Utils.canonicalConstructor(recordClass, components);
-      return new ObjectBuilder<>(
-          key -> components[map.get(key)].getGenericType(),
-          () -> new Object[components.length],
-          (array, key, value) -> array[map.get(key)] = value,
-          array -> Utils.newInstance(constructor, array)
-      );
+      return RECORD_BUILDER_CLASS_VALUE.get(recordClass);
     }
   }
 
@@ -100,34 +549,515 @@ public class JSONReader {
     Optional<ObjectBuilder<?>> match(Type type);
   }
 
+  /**
+   * The limits of a JSON text accepted by a reader, a text that exceeds a limit is rejected
+   * with an {@link IllegalStateException} before it can exhaust the stack or the heap.
+   * The text and its binary encoding are parsed without recursion, so the maximum depth is a limit
+   * on the size of the stack of the objects being built, not a limit of the parser.
+   * The limits can also be used to index a text with {@link LazyJSON#parse(String, Limits)}.
+   *
+   * @param maxDepth the maximum nesting depth of the objects and the arrays.
+   * @param maxSize the maximum size of a text in characters or in bytes, depending on the input,
+   *                a text of a known size is rejected before being parsed.
+   */
+  public record Limits(int maxDepth, long maxSize) {
+    /**
+     * The default limits, a depth of 1000 and no size limit.
+     */
+    public static final Limits DEFAULT = new Limits(ToyJSONParser.DEFAULT_MAX_DEPTH, Long.MAX_VALUE);
+
+    public Limits {
+      if (maxDepth <= 0) {
+        throw new IllegalArgumentException("invalid max depth " + maxDepth);
+      }
+      if (maxSize < 0) {
+        throw new IllegalArgumentException("invalid max size " + maxSize);
+      }
+    }
+  }
+
+  private final Limits limits;
   private final ArrayList<TypeMatcher> typeMatchers = new ArrayList<>();
 
+  public JSONReader() {
+    this(Limits.DEFAULT);
+  }
+
+  public JSONReader(Limits limits) {
+    this.limits = Objects.requireNonNull(limits);
+  }
+
+  /**
+   * A decoding plan, the object builder resolved for a type, the table of its keys (null if the keys are not known
+   * or can not be put in a {@link KeyTable})
+   * and the plans of its values.
+   * The plan of a value is resolved the first time its key is seen then reused, so decoding again
+   * the same shape does not ask the type of a value to the object builder and does not look up the type
+   * in the cache. The plans are resolved lazily so a recursive type is a cycle in the graph of plans.
+   */
+  private static final class Binding {
+    private final Type type;
+    private final ObjectBuilder<?> objectBuilder;
+    private final KeyTable keyTable;
+    /**
+     * The plans of the values of the known keys or null if the keys are not known.
+     */
+    private final ConcurrentHashMap<String, Binding> children;
+    /**
+     * The plans of the values of the keys of the key table by index or null if there is no key table.
+     * The plans are published without synchronization, a plan only has final fields apart from
+     * {@link #lastChild} so another thread sees it fully initialized or sees null and asks {@link #children}.
+     */
+    private final Binding[] indexedChildren;
+    /**
+     * The last plan used for an element of an array or the value of an unknown key.
+     */
+    private volatile Binding lastChild;
+
+    private Binding(Type type, ObjectBuilder<?> objectBuilder) {
+      this.type = type;
+      this.objectBuilder = objectBuilder;
+      this.keyTable = objectBuilder.keys.map(KeyTable::of).orElse(null);
+      this.children = objectBuilder.keys.isPresent()? new ConcurrentHashMap<>(): null;
+      this.indexedChildren = keyTable == null? null: new Binding[keyTable.size()];
+    }
+
+    /**
+     * Returns the plan of the value of a key from the index of the key in the key table
+     * or like {@link #child(String, Function)} if the index is -1.
+     */
+    private Binding child(String key, int keyIndex, Function<? super Type, ? extends Binding> resolver) {
+      if (keyIndex == -1) {
+        return child(key, resolver);
+      }
+      var child = indexedChildren[keyIndex];
+      if (child == null) {
+        child = indexedChildren[keyIndex] = child(key, resolver);
+      }
+      return child;
+    }
+
+    /**
+     * Returns the plan of the value of a key, null for an element of an array.
+     * @param resolver finds the plan of a type.
+     */
+    private Binding child(String key, Function<? super Type, ? extends Binding> resolver) {
+      if (key != null && children != null) {
+        var child = children.get(key);
+        if (child == null) {
+          child = resolver.apply(objectBuilder.typeProvider.apply(key));
+          children.putIfAbsent(key, child);
+        }
+        return child;
+      }
+      // the keys are unbounded, only the last plan is kept, by example an element type is the same for all elements
+      var childType = objectBuilder.typeProvider.apply(key);
+      var lastChild = this.lastChild;
+      if (lastChild != null && lastChild.type == childType) {
+        return lastChild;
+      }
+      var child = resolver.apply(childType);
+      this.lastChild = child;
+      return child;
+    }
+  }
+
+  /**
+   * The bindings already resolved, an object builder has no state so it can be reused.
+   * The cache is cleared each time a type matcher is added.
+   */
+  private final ConcurrentHashMap<Type, Binding> bindingCache = new ConcurrentHashMap<>();
+
   public void addTypeMatcher(TypeMatcher typeMatcher) {
     Objects.requireNonNull(typeMatcher);
     typeMatchers.add(typeMatcher);
+    bindingCache.clear();
   }
 
   ObjectBuilder<?> findObjectBuilder(Type type) {
+    return findBinding(type).objectBuilder;
+  }
+
+  private Binding findBinding(Type type) {
+    return bindingCache.computeIfAbsent(type, t -> new Binding(t, resolveObjectBuilder(t)));
+  }
+
+  private ObjectBuilder<?> resolveObjectBuilder(Type type) {
     return typeMatchers.reversed().stream()
         .flatMap(typeMatcher -> typeMatcher.match(type).stream())
         .findFirst()
-        .orElseGet(() -> ObjectBuilder.bean(Utils.erase(type)));
+        .orElseGet(() -> defaultObjectBuilder(type));
+  }
+
+  private static ObjectBuilder<?> defaultObjectBuilder(Type type) {
+    if (type == int[].class) {
+      return ObjectBuilder.intArray();
+    }
+    if (type == long[].class) {
+      return ObjectBuilder.longArray();
+    }
+    if (type == double[].class) {
+      return ObjectBuilder.doubleArray();
+    }
+    return ObjectBuilder.bean(Utils.erase(type));
   }
 
-  private record Context<T>(ObjectBuilder<T> objectBuilder, T result) {
-    private static <T> Context<T> create(ObjectBuilder<T> objectBuilder) {
-      return new Context<>(objectBuilder, objectBuilder.supplier.get());
+  /**
+   * The keys selected by the paths of a projection, a projection with no child selects all the keys.
+   */
+  private record Projection(Map<String, Projection> children) {
+    private static final Projection ALL = new Projection(Map.of());
+
+    private static Projection of(String... paths) {
+      return of(Arrays.stream(paths).map(path -> List.of(path.split("\\."))).toList());
     }
 
-    private void populate(String key, Object value) {
-      objectBuilder.populater.populate(result, key, value);
+    private static Projection of(List<List<String>> paths) {
+      if (paths.stream().anyMatch(List::isEmpty)) {
+        return ALL;
+      }
+      var map = paths.stream()
+          .collect(Collectors.groupingBy(List::getFirst, Collectors.mapping(path -> path.subList(1, path.size()), Collectors.toList())));
+      return new Projection(map.entrySet().stream()
+          .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> of(entry.getValue()))));
+    }
+
+    private boolean accept(String key) {
+      return children.isEmpty() || children.containsKey(key);
+    }
+
+    private Projection child(String key) {
+      if (key == null || children.isEmpty()) {  // an array element or a selected value
+        return this;
+      }
+      return children.get(key);
+    }
+  }
+
+  /**
+   * A frame of the stack of a parsing, the object being built, its decoding plan and the keys to keep
+   * (null if all the keys are bound).
+   * The frames are mutable so a frame is reused by the next objects at the same depth.
+   */
+  private static final class Frame {
+    private Binding binding;
+    private ObjectBuilder<Object> objectBuilder;
+    private Object result;
+    private Projection projection;
+
+    @SuppressWarnings("unchecked")  // the builder only populates the instance it has created
+    private void init(Binding binding, Projection projection) {
+      this.binding = binding;
+      this.objectBuilder = (ObjectBuilder<Object>) binding.objectBuilder;
+      this.result = objectBuilder.supplier.get();
+      this.projection = projection;
+    }
+
+    /**
+     * A key found in the key table is a known key.
+     */
+    private boolean accept(String key, int keyIndex) {
+      var keys = objectBuilder.keys;
+      return (keyIndex != -1 || keys.isEmpty() || keys.get().contains(key)) && projection.accept(key);
+    }
+
+    private Projection child(String key) {
+      return projection == null? null: projection.child(key);
+    }
+
+    private void populate(String key, int keyIndex, Object value) {
+      objectBuilder.populater.populate(result, key, keyIndex, value);
+    }
+
+    private void populate(String key, int keyIndex, int value) {
+      objectBuilder.populater.populate(result, key, keyIndex, value);
+    }
+
+    private void populate(String key, int keyIndex, long value) {
+      objectBuilder.populater.populate(result, key, keyIndex, value);
+    }
+
+    private void populate(String key, int keyIndex, double value) {
+      objectBuilder.populater.populate(result, key, keyIndex, value);
+    }
+
+    private void populate(String key, int keyIndex, boolean value) {
+      objectBuilder.populater.populate(result, key, keyIndex, value);
     }
 
     private Object finish() {
-      return objectBuilder.finisher.apply(result);
+      var instance = objectBuilder.finisher.apply(result);
+      clear();
+      return instance;
+    }
+
+    private void clear() {
+      binding = null;
+      objectBuilder = null;
+      result = null;
+      projection = null;
+    }
+  }
+
+  /**
+   * The reusable state of a parsing, the parser session with its buffer, the stack of frames
+   * and the visitor itself, so in the steady state, a parsing only allocates the objects it creates.
+   * A session is used by one parsing at a time, it is taken from the {@link #sessionPool}
+   * at the beginning of a parsing and given back at the end.
+   * The input is sent to one of the parsing methods of the session, so a parsing does not need
+   * a lambda that captures the input.
+   */
+  private final class Session implements ToyJSONParser.JSONVisitor {
+    private final ToyJSONParser.Session parser = new ToyJSONParser.Session(limits.maxDepth, limits.maxSize);
+    private final Function<Type, Binding> resolver = JSONReader.this::findBinding;
+    private Frame[] frames = new Frame[16];
+    private int depth;
+    private Type expectedType;
+    private Projection projection;
+    private Object result;
+
+    private <I> Object parse(Type expectedType, Projection projection, I input, BiConsumer<? super Session, ? super I> parsing) {
+      this.expectedType = expectedType;
+      this.projection = projection;
+      try {
+        parsing.accept(this, input);
+        return result;
+      } finally {
+        clear();
+      }
+    }
+
+    private void parseText(String text) {
+      parser.parse(text, this);
+    }
+
+    private void readText(Reader reader) {
+      parser.parse(reader, this);
+    }
+
+    private void parseUtf8(MemorySegment segment) {
+      parser.parse(segment, this);
+    }
+
+    private void parseBinary(byte[] bytes) {
+      BinaryJSON.parse(bytes, this, limits.maxDepth, limits.maxSize);
+    }
+
+    /**
+     * Do not keep a reference on the objects of the current parsing.
+     */
+    private void clear() {
+      for (var i = 0; i < depth; i++) {
+        frames[i].clear();
+      }
+      depth = 0;
+      expectedType = null;
+      projection = null;
+      result = null;
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      value(key, -1, value);
+    }
+
+    @Override
+    public void value(String key, int keyIndex, Object value) {
+      frames[depth - 1].populate(key, keyIndex, value);
+    }
+
+    @Override
+    public void value(String key, int value) {
+      value(key, -1, value);
+    }
+
+    @Override
+    public void value(String key, int keyIndex, int value) {
+      frames[depth - 1].populate(key, keyIndex, value);
+    }
+
+    @Override
+    public void value(String key, long value) {
+      value(key, -1, value);
+    }
+
+    @Override
+    public void value(String key, int keyIndex, long value) {
+      frames[depth - 1].populate(key, keyIndex, value);
+    }
+
+    @Override
+    public void value(String key, double value) {
+      value(key, -1, value);
+    }
+
+    @Override
+    public void value(String key, int keyIndex, double value) {
+      frames[depth - 1].populate(key, keyIndex, value);
+    }
+
+    @Override
+    public void value(String key, boolean value) {
+      value(key, -1, value);
+    }
+
+    @Override
+    public void value(String key, int keyIndex, boolean value) {
+      frames[depth - 1].populate(key, keyIndex, value);
+    }
+
+    @Override
+    public boolean accept(String key) {
+      return accept(key, -1);
+    }
+
+    @Override
+    public boolean accept(String key, int keyIndex) {
+      return projection == null || frames[depth - 1].accept(key, keyIndex);
+    }
+
+    @Override
+    public KeyTable keyTable() {
+      return frames[depth - 1].binding.keyTable;
+    }
+
+    @Override
+    public void startObject(String key) {
+      startObject(key, -1);
+    }
+
+    @Override
+    public void startObject(String key, int keyIndex) {
+      Binding binding;
+      Projection childProjection;
+      if (depth == 0) {
+        binding = findBinding(expectedType);
+        childProjection = projection;
+      } else {
+        var frame = frames[depth - 1];
+        binding = frame.binding.child(key, keyIndex, resolver);
+        childProjection = frame.child(key);
+      }
+      if (depth == frames.length) {
+        frames = Arrays.copyOf(frames, depth << 1);
+      }
+      var frame = frames[depth];
+      if (frame == null) {
+        frame = frames[depth] = new Frame();
+      }
+      frame.init(binding, childProjection);
+      depth++;
+    }
+
+    @Override
+    public void endObject(String key) {
+      endObject(key, -1);
+    }
+
+    @Override
+    public void endObject(String key, int keyIndex) {
+      var instance = frames[--depth].finish();
+      if (depth == 0) {
+        result = instance;
+        return;
+      }
+      frames[depth - 1].populate(key, keyIndex, instance);
+    }
+
+    @Override
+    public void startArray(String key) {
+      startObject(key, -1);
+    }
+
+    @Override
+    public void startArray(String key, int keyIndex) {
+      startObject(key, keyIndex);
+    }
+
+    @Override
+    public void endArray(String key) {
+      endObject(key, -1);
+    }
+
+    @Override
+    public void endArray(String key, int keyIndex) {
+      endObject(key, keyIndex);
+    }
+  }
+
+  /**
+   * The sessions not currently used by a parsing.
+   */
+  private final SessionPool<Session> sessionPool = new SessionPool<>(Session::new);
+
+  /**
+   * A decoder of a JSON text encoded in UTF-8 that is fed by chunks of bytes as they arrive,
+   * by example from a non-blocking channel, so the text is neither fully buffered nor read by a blocked thread.
+   * The values are bound as soon as their tokens are complete.
+   * A decoder is not thread safe and decodes only one JSON text.
+   *
+   * <pre>
+   *   var decoder = reader.newDecoder(Order.class);
+   *   // each time a chunk is read from the channel
+   *   decoder.feed(buffer.flip());
+   *   // at the end of the input
+   *   var order = (Order) decoder.finish();
+   * </pre>
+   *
+   * @see #newDecoder(Type)
+   */
+  public final class Decoder {
+    private final Session session = new Session();
+    private final ToyJSONParser.PushParser parser = new ToyJSONParser.PushParser(session, limits.maxDepth, limits.maxSize);
+
+    private Decoder(Type expectedType) {
+      session.expectedType = expectedType;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, the bytes of a token that continues in the next chunk
+     * are kept by the decoder, so a chunk can end anywhere. The position of the buffer is moved to its limit.
+     *
+     * @param buffer a chunk of the JSON text.
+     * @throws IllegalStateException if the text is not valid or if the decoder has already failed or finished.
+     */
+    public void feed(ByteBuffer buffer) {
+      Objects.requireNonNull(buffer);
+      try {
+        parser.feed(buffer);
+      } catch (RuntimeException e) {
+        session.clear();
+        throw e;
+      }
+    }
+
+    /**
+     * Signals the end of the JSON text and returns the result of the binding.
+     *
+     * @return the result of the binding.
+     * @throws IllegalStateException if the text is not complete or if the decoder has already failed or finished.
+     */
+    public Object finish() {
+      try {
+        parser.finish();
+        return session.result;
+      } finally {
+        session.clear();
+      }
     }
   }
 
+  /**
+   * Creates a decoder of a JSON text encoded in UTF-8 that is fed by chunks of bytes.
+   *
+   * @param expectedType the type of the result.
+   * @return a new decoder.
+   */
+  public Decoder newDecoder(Type expectedType) {
+    Objects.requireNonNull(expectedType);
+    return new Decoder(expectedType);
+  }
+
   public <T> T parseJSON(String text, Class<T> expectedClass) {
     return expectedClass.cast(parseJSON(text, (Type) expectedClass));
   }
@@ -135,47 +1065,287 @@ public class JSONReader {
   public Object parseJSON(String text, Type expectedType) {
     Objects.requireNonNull(text);
     Objects.requireNonNull(expectedType);
-    var stack = new ArrayDeque<Context<?>>();
-    var visitor = new ToyJSONParser.JSONVisitor() {
-      private Object result;
-
-      @Override
-      public void value(String key, Object value) {
-        var context = stack.peek();
-        context.populate(key, value);
-      }
-
-      @Override
-      public void startObject(String key) {
-        var context = stack.peek();
-        var type = context == null ? expectedType : context.objectBuilder.typeProvider.apply(key);
-        var objectbuilder = findObjectBuilder(type);
-        stack.push(Context.create(objectbuilder));
-      }
-
-      @Override
-      public void endObject(String key) {
-        var instance = stack.pop().finish();
-        if (stack.isEmpty()) {
-          result = instance;
-          return;
-        }
-        var context = stack.peek();
-        context.populate(key, instance);
-      }
+    return parseJSON(expectedType, null, text, Session::parseText);
+  }
 
-      @Override
-      public void startArray(String key) {
-        startObject(key);
-      }
+  public <T> T parseUtf8(byte[] bytes, Class<T> expectedClass) {
+    return expectedClass.cast(parseUtf8(bytes, (Type) expectedClass));
+  }
+
+  public Object parseUtf8(byte[] bytes, Type expectedType) {
+    Objects.requireNonNull(bytes);
+    return parseUtf8(MemorySegment.ofArray(bytes), expectedType);
+  }
+
+  /**
+   * Parses the remaining bytes of a buffer like {@link #parseUtf8(MemorySegment, Type)},
+   * the position of the buffer is not changed.
+   */
+  public Object parseUtf8(ByteBuffer buffer, Type expectedType) {
+    Objects.requireNonNull(buffer);
+    return parseUtf8(MemorySegment.ofBuffer(buffer), expectedType);
+  }
+
+  /**
+   * Parses a JSON text encoded in UTF-8 like {@link #parseJSON(String, Type)} without decoding
+   * the bytes to a String first, only the strings that are bound are decoded
+   * (see {@link ToyJSONParser#parse(MemorySegment, ToyJSONParser.JSONVisitor)}).
+   *
+   * @param segment the bytes of a JSON text encoded in UTF-8.
+   * @param expectedType the type of the result.
+   * @return the result of the binding.
+   * @throws IllegalStateException if the text is not valid, including an invalid UTF-8 sequence in a bound string.
+   */
+  public Object parseUtf8(MemorySegment segment, Type expectedType) {
+    Objects.requireNonNull(segment);
+    Objects.requireNonNull(expectedType);
+    return parseJSON(expectedType, null, segment, Session::parseUtf8);
+  }
 
-      @Override
-      public void endArray(String key) {
-        endObject(key);
+  public <T> T projectJSON(String text, Class<T> expectedClass, String... paths) {
+    return expectedClass.cast(projectJSON(text, (Type) expectedClass, paths));
+  }
+
+  /**
+   * Parses a JSON text like {@link #parseJSON(String, Type)} but only binds the values that are needed,
+   * the other values are skipped by the parser without being decoded and without creating any object.
+   * A value is skipped if its key is not known by the object builder of the enclosing object
+   * (see {@link ObjectBuilder#keys()}) or, if paths are specified, if its key is not on one of the paths.
+   * A path is a list of keys separated by dots ("payload.x"), the whole value at the end of a path is bound,
+   * the elements of an array share the path of the array.
+   *
+   * @param text a JSON text.
+   * @param expectedType the type of the result.
+   * @param paths the paths of the values to bind, all the known keys are bound if there is no path.
+   * @return the result of the binding.
+   */
+  public Object projectJSON(String text, Type expectedType, String... paths) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(expectedType);
+    var projection = Projection.of(paths);
+    return parseJSON(expectedType, projection, text, Session::parseText);
+  }
+
+  public Object readJSON(Reader reader, Type expectedType) {
+    Objects.requireNonNull(reader);
+    Objects.requireNonNull(expectedType);
+    return parseJSON(expectedType, null, reader, Session::readText);
+  }
+
+  public Object readJSON(InputStream inputStream, Type expectedType) {
+    Objects.requireNonNull(inputStream);
+    return readJSON(new InputStreamReader(inputStream, StandardCharsets.UTF_8), expectedType);
+  }
+
+  public Object readJSON(ReadableByteChannel channel, Type expectedType) {
+    Objects.requireNonNull(channel);
+    return readJSON(Channels.newReader(channel, StandardCharsets.UTF_8), expectedType);
+  }
+
+  public <T> T parseBinary(byte[] bytes, Class<T> expectedClass) {
+    return expectedClass.cast(parseBinary(bytes, (Type) expectedClass));
+  }
+
+  /**
+   * Binds the binary encoding of a JSON value written by {@link JSONWriter#toBinary(Object)},
+   * the encoding is described in {@link BinaryJSON}.
+   *
+   * @param bytes the binary encoding.
+   * @param expectedType the type of the result.
+   * @return the result of the binding.
+   * @throws IllegalStateException if the encoding is invalid or truncated.
+   */
+  public Object parseBinary(byte[] bytes, Type expectedType) {
+    Objects.requireNonNull(bytes);
+    Objects.requireNonNull(expectedType);
+    return parseJSON(expectedType, null, bytes, Session::parseBinary);
+  }
+
+  public Object readBinary(InputStream inputStream, Type expectedType) {
+    Objects.requireNonNull(inputStream);
+    byte[] bytes;
+    try {
+      bytes = inputStream.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return parseBinary(bytes, expectedType);
+  }
+
+  /**
+   * The size in bytes of the chunks of lines decoded by a task of an executor.
+   */
+  private static final long LINES_CHUNK_SIZE = 1 << 20;
+
+  /**
+   * The maximum number of chunks of lines submitted to an executor and not yet consumed,
+   * so the values of at most this number of chunks are kept in memory.
+   */
+  private static final int MAX_LINES_CHUNKS_IN_FLIGHT = 8;
+
+  private static MemorySegment map(Path path, Arena arena) {
+    try(var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public <T> T readJSON(Path path, Class<T> expectedClass) {
+    return expectedClass.cast(readJSON(path, (Type) expectedClass));
+  }
+
+  /**
+   * Reads a JSON file encoded in UTF-8 like {@link #parseUtf8(MemorySegment, Type)}.
+   * The file is memory mapped during the parsing and unmapped before this method returns,
+   * so the file is never copied as a whole in the heap, only the values that are bound are.
+   *
+   * @param path the path of the file.
+   * @param expectedType the type of the result.
+   * @return the result of the binding.
+   * @throws UncheckedIOException if the file can not be mapped.
+   * @throws IllegalStateException if the text is not valid.
+   */
+  public Object readJSON(Path path, Type expectedType) {
+    Objects.requireNonNull(path);
+    Objects.requireNonNull(expectedType);
+    try(var arena = Arena.ofConfined()) {
+      var segment = map(path, arena);
+      return parseJSON(expectedType, null, segment, Session::parseUtf8);
+    }
+  }
+
+  public <T> T projectJSON(Path path, Class<T> expectedClass, String... paths) {
+    return expectedClass.cast(projectJSON(path, (Type) expectedClass, paths));
+  }
+
+  /**
+   * Reads a JSON file encoded in UTF-8 like {@link #readJSON(Path, Type)} but only binds the values
+   * on the paths like {@link #projectJSON(String, Type, String...)}, the other values are skipped
+   * on the mapped bytes without being decoded, so only the pages of the file are touched.
+   *
+   * @param path the path of the file.
+   * @param expectedType the type of the result.
+   * @param paths the paths of the values to bind, all the known keys are bound if there is no path.
+   * @return the result of the binding.
+   * @throws UncheckedIOException if the file can not be mapped.
+   * @throws IllegalStateException if the text is not valid.
+   */
+  public Object projectJSON(Path path, Type expectedType, String... paths) {
+    Objects.requireNonNull(path);
+    Objects.requireNonNull(expectedType);
+    var projection = Projection.of(paths);
+    try(var arena = Arena.ofConfined()) {
+      var segment = map(path, arena);
+      return parseJSON(expectedType, projection, segment, Session::parseUtf8);
+    }
+  }
+
+  public <T> Stream<T> readJSONLines(Path path, Class<T> expectedClass) {
+    return readJSONLines(path, (Type) expectedClass).map(expectedClass::cast);
+  }
+
+  /**
+   * Reads a JSON Lines file, a file with one JSON text per line, and returns a stream of the decoded values.
+   * The file is memory mapped and the stream splits it at line boundaries, so if the stream is parallel,
+   * the lines are decoded in parallel by the fork join pool that runs the terminal operation.
+   * Use {@link Stream#unordered()} if the order of the lines does not matter.
+   * The file is unmapped when the stream is closed.
+   *
+   * <pre>
+   *   try(var events = reader.readJSONLines(path, Event.class)) {
+   *     var count = events.parallel().unordered().filter(Event::isValid).count();
+   *   }
+   * </pre>
+   *
+   * @param path the path of the file.
+   * @param expectedType the type of the value of each line.
+   * @return a stream of the values of the lines, in the order of the file.
+   * @throws UncheckedIOException if the file can not be mapped.
+   */
+  public Stream<Object> readJSONLines(Path path, Type expectedType) {
+    Objects.requireNonNull(path);
+    Objects.requireNonNull(expectedType);
+    var arena = Arena.ofShared();
+    MemorySegment segment;
+    try {
+      segment = map(path, arena);
+    } catch (RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+    return StreamSupport.stream(new LineSpliterator(segment), false)
+        .map(line -> parseUtf8(line, expectedType))
+        .onClose(arena::close);
+  }
+
+  /**
+   * Reads a JSON Lines file, a file with one JSON text per line, and sends the decoded values to a consumer.
+   * The file is memory mapped and split into chunks of lines decoded in parallel by the tasks of an executor.
+   * If ordered is true, the values of a chunk are kept until the values of the previous chunks
+   * have been sent and the consumer is called by the current thread in the order of the file,
+   * otherwise the consumer is called by the tasks of the executor as soon as a value is decoded,
+   * so it has to be thread safe.
+   * A chunk is only submitted to the executor when one of the previously submitted chunks has been consumed,
+   * so the memory used does not depend on the size of the file.
+   * This method returns when all the lines have been decoded.
+   *
+   * @param path the path of the file.
+   * @param expectedType the type of the value of each line.
+   * @param executor the executor that runs the decoding tasks.
+   * @param ordered true if the consumer should be called in the order of the file.
+   * @param consumer the consumer of the values.
+   * @throws UncheckedIOException if the file can not be mapped.
+   */
+  public void readJSONLines(Path path, Type expectedType, Executor executor, boolean ordered, Consumer<Object> consumer) {
+    Objects.requireNonNull(path);
+    Objects.requireNonNull(expectedType);
+    Objects.requireNonNull(executor);
+    Objects.requireNonNull(consumer);
+    try(var arena = Arena.ofShared()) {
+      var segment = map(path, arena);
+      var futures = new ArrayDeque<CompletableFuture<List<Object>>>();
+      try {
+        for (var chunk : LineSpliterator.chunks(segment, LINES_CHUNK_SIZE)) {
+          if (futures.size() == MAX_LINES_CHUNKS_IN_FLIGHT) {
+            futures.poll().join().forEach(consumer);
+          }
+          futures.add(CompletableFuture.supplyAsync(() -> {
+            if (!ordered) {
+              chunk.forEachRemaining(line -> consumer.accept(parseUtf8(line, expectedType)));
+              return List.of();
+            }
+            var values = new ArrayList<Object>();
+            chunk.forEachRemaining(line -> values.add(parseUtf8(line, expectedType)));
+            return values;
+          }, executor));
+        }
+        for (var future : futures) {
+          future.join().forEach(consumer);
+        }
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      } finally {
+        // the segment can not be unmapped while a task is still reading it
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).handle((result, exception) -> null).join();
       }
-    };
-    ToyJSONParser.parse(text, visitor);
-    return visitor.result;
+    }
+  }
+
+  /**
+   * Parses an input with a session of the pool, parsing is one of the parsing methods of {@link Session}
+   * so it does not capture the input.
+   */
+  private <I> Object parseJSON(Type expectedType, Projection projection, I input, BiConsumer<? super Session, ? super I> parsing) {
+    var session = sessionPool.acquire();
+    try {
+      return session.parse(expectedType, projection, input, parsing);
+    } finally {
+      sessionPool.release(session);
+    }
   }
 
   public interface TypeReference<T> { }
@@ -2,38 +2,254 @@ package com.github.forax.framework.mapper;
 
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodHandles.Lookup.ClassOption;
+import java.lang.invoke.VarHandle;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.RandomAccess;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
-import static java.util.stream.Collectors.joining;
+import static java.lang.constant.ConstantDescs.BSM_CLASS_DATA_AT;
+import static java.lang.constant.ConstantDescs.CD_MethodHandle;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_void;
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static java.lang.constant.ConstantDescs.MTD_void;
+import static java.lang.invoke.MethodType.methodType;
 
 public final class JSONWriter {
+  /**
+   * Optional features of a writer.
+   * @see #JSONWriter(Feature...)
+   */
+  public enum Feature {
+    /**
+     * Generates at runtime a hidden class per bean or record class that serializes
+     * all the properties in one method instead of composing one closure per property.
+     */
+    GENERATED_SERIALIZERS,
+
+    /**
+     * Serializes the large collections and arrays in parallel, the elements are split in segments
+     * written concurrently into separate buffers that are appended in order once all the segments are written.
+     */
+    PARALLEL_LISTS
+  }
+
   private interface Generator {
-    String generate(JSONWriter writer, Object object);
+    void generate(JSONWriter writer, Object object, Sink sink);
   }
 
-  private static final ClassValue<Generator> GENERATOR_CLASS_VALUE = new ClassValue<>() {
+  private static final Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * A property of a bean or a record, the getter is adapted to take an Object and
+   * to return either a boolean, an int, a long, a float, a double or an Object.
+   */
+  private record Property(Sink.Key key, MethodHandle getter) {}
+
+  private static final ClassValue<List<Property>> PROPERTIES_CLASS_VALUE = new ClassValue<>() {
     @Override
-    protected Generator computeValue(Class<?> type) {
+    protected List<Property> computeValue(Class<?> type) {
       var properties = type.isRecord()? recordProperties(type): beanProperties(type);
-      var generators = properties.stream()
-          .<Generator>map(property -> {
+      return properties.stream()
+          .map(property -> {
             var getter = property.getReadMethod();
             var propertyAnnotation = getter.getAnnotation(JSONProperty.class);
             var propertyName = propertyAnnotation == null? property.getName(): propertyAnnotation.value();
-            var key = "\"" + propertyName + "\": ";
-            return (writer, o) -> key + writer.toJSON(Utils.invokeMethod(o, getter));
+            var mh = Utils.unreflect(LOOKUP, getter);
+            var returnType = mh.type().returnType();
+            var erasedType = returnType == boolean.class || returnType == int.class || returnType == long.class ||
+                returnType == float.class || returnType == double.class ? returnType: Object.class;
+            return new Property(Sink.Key.of(propertyName), mh.asType(methodType(erasedType, Object.class)));
           })
           .toList();
-      return (writer, object) -> generators.stream()
-          .map(generator -> generator.generate(writer, object))
-          .collect(joining(", ", "{", "}"));
     }
   };
 
+  private static final ClassValue<Generator> GENERATOR_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Generator computeValue(Class<?> type) {
+      var generators = PROPERTIES_CLASS_VALUE.get(type).stream()
+          .map(JSONWriter::propertyGenerator)
+          .toList();
+      return (writer, object, sink) -> {
+        sink.startObject();
+        for (var generator : generators) {
+          generator.generate(writer, object, sink);
+        }
+        sink.endObject();
+      };
+    }
+  };
+
+  private static final ClassValue<Generator> SERIALIZER_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Generator computeValue(Class<?> type) {
+      return generateSerializer(PROPERTIES_CLASS_VALUE.get(type));
+    }
+  };
+
+  /**
+   * Creates a generator that calls the getter through a method handle adapted once to its return type,
+   * so the values of primitive types are written without being boxed.
+   */
+  private static Generator propertyGenerator(Property property) {
+    var key = property.key;
+    var mh = property.getter;
+    var returnType = mh.type().returnType();
+    if (returnType == boolean.class) {
+      return (_, o, sink) -> {
+        boolean value;
+        try {
+          value = (boolean) mh.invokeExact(o);
+        } catch (Throwable t) {
+          throw Utils.rethrow(t);
+        }
+        sink.key(key);
+        sink.booleanValue(value);
+      };
+    }
+    if (returnType == int.class) {
+      return (_, o, sink) -> {
+        int value;
+        try {
+          value = (int) mh.invokeExact(o);
+        } catch (Throwable t) {
+          throw Utils.rethrow(t);
+        }
+        sink.key(key);
+        sink.intValue(value);
+      };
+    }
+    if (returnType == long.class) {
+      return (_, o, sink) -> {
+        long value;
+        try {
+          value = (long) mh.invokeExact(o);
+        } catch (Throwable t) {
+          throw Utils.rethrow(t);
+        }
+        sink.key(key);
+        sink.longValue(value);
+      };
+    }
+    if (returnType == float.class) {
+      return (_, o, sink) -> {
+        float value;
+        try {
+          value = (float) mh.invokeExact(o);
+        } catch (Throwable t) {
+          throw Utils.rethrow(t);
+        }
+        sink.key(key);
+        sink.floatValue(value);
+      };
+    }
+    if (returnType == double.class) {
+      return (_, o, sink) -> {
+        double value;
+        try {
+          value = (double) mh.invokeExact(o);
+        } catch (Throwable t) {
+          throw Utils.rethrow(t);
+        }
+        sink.key(key);
+        sink.doubleValue(value);
+      };
+    }
+    return (writer, o, sink) -> {
+      Object value;
+      try {
+        value = mh.invokeExact(o);
+      } catch (Throwable t) {
+        throw Utils.rethrow(t);
+      }
+      sink.key(key);
+      writer.write(value, sink);
+    };
+  }
+
+  private static final ClassDesc CD_GENERATOR = Generator.class.describeConstable().orElseThrow();
+  private static final ClassDesc CD_JSON_WRITER = JSONWriter.class.describeConstable().orElseThrow();
+  private static final ClassDesc CD_SINK = Sink.class.describeConstable().orElseThrow();
+  private static final ClassDesc CD_KEY = Sink.Key.class.describeConstable().orElseThrow();
+  private static final MethodTypeDesc MTD_GENERATE = MethodTypeDesc.of(CD_void, CD_JSON_WRITER, CD_Object, CD_SINK);
+
+  /**
+   * Generates a hidden class that implements {@link Generator} with a straight line of code:
+   * the keys are constants of the class (their UTF-8 bytes are pre-computed)
+   * and the getters are constant method handles, so the JIT can inline all the calls.
+   */
+  private static Generator generateSerializer(List<Property> properties) {
+    var classData = properties.stream()
+        .<Object>mapMulti((property, consumer) -> {
+          consumer.accept(property.key);
+          consumer.accept(property.getter);
+        })
+        .toList();
+    var classDesc = ClassDesc.of(JSONWriter.class.getPackageName(), "JSONWriter$Serializer");
+    var bytecode = ClassFile.of().build(classDesc, classBuilder -> classBuilder
+        .withFlags(ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+        .withInterfaceSymbols(CD_GENERATOR)
+        .withMethodBody(INIT_NAME, MTD_void, ClassFile.ACC_PUBLIC, code -> code
+            .aload(0)
+            .invokespecial(CD_Object, INIT_NAME, MTD_void)
+            .return_())
+        .withMethodBody("generate", MTD_GENERATE, ClassFile.ACC_PUBLIC, code -> {
+          code.aload(3).invokevirtual(CD_SINK, "startObject", MTD_void);
+          for(var i = 0; i < properties.size(); i++) {
+            var returnType = properties.get(i).getter.type().returnType();
+            var returnDesc = returnType.describeConstable().orElseThrow();
+            code.aload(3)
+                .ldc(DynamicConstantDesc.ofNamed(BSM_CLASS_DATA_AT, DEFAULT_NAME, CD_KEY, 2 * i))
+                .invokevirtual(CD_SINK, "key", MethodTypeDesc.of(CD_void, CD_KEY));
+            if (returnType == Object.class) {
+              code.aload(1);
+            } else {
+              code.aload(3);
+            }
+            code.ldc(DynamicConstantDesc.ofNamed(BSM_CLASS_DATA_AT, DEFAULT_NAME, CD_MethodHandle, 2 * i + 1))
+                .aload(2)
+                .invokevirtual(CD_MethodHandle, "invokeExact", MethodTypeDesc.of(returnDesc, CD_Object));
+            if (returnType == Object.class) {
+              code.aload(3).invokevirtual(CD_JSON_WRITER, "write", MethodTypeDesc.of(CD_void, CD_Object, CD_SINK));
+            } else {
+              code.invokevirtual(CD_SINK, returnType.getName() + "Value", MethodTypeDesc.of(CD_void, returnDesc));
+            }
+          }
+          code.aload(3).invokevirtual(CD_SINK, "endObject", MTD_void)
+              .return_();
+        }));
+    try {
+      var lookup = LOOKUP.defineHiddenClassWithClassData(bytecode, classData, true, ClassOption.NESTMATE);
+      return (Generator) lookup.findConstructor(lookup.lookupClass(), methodType(void.class)).invoke();
+    } catch (IllegalAccessException e) {
+      throw (IllegalAccessError) new IllegalAccessError().initCause(e);
+    } catch (Throwable t) {
+      throw Utils.rethrow(t);
+    }
+  }
+
   private static List<PropertyDescriptor> beanProperties(Class<?> type) {
     var beanInfo = Utils.beanInfo(type);
     return Arrays.stream(beanInfo.getPropertyDescriptors())
@@ -53,30 +269,319 @@ public final class JSONWriter {
         .toList();
   }
 
-  private final HashMap<Class<?>, Generator> map = new HashMap<>();
+  /**
+   * The generators of the types that are not beans, or null if the type is a bean.
+   * The collections and the arrays are written as JSON arrays, the maps as JSON objects,
+   * an optional as its value or null, an enum as its name and the java.time types
+   * as strings in the ISO-8601 format.
+   */
+  private static final ClassValue<Generator> BUILTIN_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Generator computeValue(Class<?> type) {
+      if (type.isArray()) {
+        return arrayGenerator(type.componentType());
+      }
+      if (Collection.class.isAssignableFrom(type)) {
+        return (writer, object, sink) -> writer.writeCollection((Collection<?>) object, sink);
+      }
+      if (Map.class.isAssignableFrom(type)) {
+        return (writer, object, sink) -> writer.writeMap((Map<?, ?>) object, sink);
+      }
+      if (type == Optional.class) {
+        return (writer, object, sink) -> writer.write(((Optional<?>) object).orElse(null), sink);
+      }
+      if (type == OptionalInt.class) {
+        return (_, object, sink) -> {
+          var optional = (OptionalInt) object;
+          if (optional.isEmpty()) {
+            sink.nullValue();
+            return;
+          }
+          sink.intValue(optional.getAsInt());
+        };
+      }
+      if (type == OptionalLong.class) {
+        return (_, object, sink) -> {
+          var optional = (OptionalLong) object;
+          if (optional.isEmpty()) {
+            sink.nullValue();
+            return;
+          }
+          sink.longValue(optional.getAsLong());
+        };
+      }
+      if (type == OptionalDouble.class) {
+        return (_, object, sink) -> {
+          var optional = (OptionalDouble) object;
+          if (optional.isEmpty()) {
+            sink.nullValue();
+            return;
+          }
+          sink.doubleValue(optional.getAsDouble());
+        };
+      }
+      if (Enum.class.isAssignableFrom(type)) {  // also the constants with a body
+        return (_, object, sink) -> sink.stringValue(((Enum<?>) object).name());
+      }
+      if (type.getPackageName().equals("java.time")) {
+        return (_, object, sink) -> sink.stringValue(object.toString());
+      }
+      return null;
+    }
+  };
+
+  /**
+   * Creates a generator for an array, the elements of a primitive array are written without being boxed,
+   * an array of chars is written as a string.
+   */
+  private static Generator arrayGenerator(Class<?> componentType) {
+    if (!componentType.isPrimitive()) {
+      return (writer, object, sink) -> writer.writeCollection(Arrays.asList((Object[]) object), sink);
+    }
+    if (componentType == char.class) {
+      return (_, object, sink) -> sink.stringValue(new String((char[]) object));
+    }
+    if (componentType == boolean.class) {
+      return (_, object, sink) -> {
+        sink.startArray();
+        for (var value : (boolean[]) object) {
+          sink.element();
+          sink.booleanValue(value);
+        }
+        sink.endArray();
+      };
+    }
+    if (componentType == byte.class) {
+      return (_, object, sink) -> {
+        sink.startArray();
+        for (var value : (byte[]) object) {
+          sink.element();
+          sink.intValue(value);
+        }
+        sink.endArray();
+      };
+    }
+    if (componentType == short.class) {
+      return (_, object, sink) -> {
+        sink.startArray();
+        for (var value : (short[]) object) {
+          sink.element();
+          sink.intValue(value);
+        }
+        sink.endArray();
+      };
+    }
+    if (componentType == int.class) {
+      return (_, object, sink) -> {
+        sink.startArray();
+        for (var value : (int[]) object) {
+          sink.element();
+          sink.intValue(value);
+        }
+        sink.endArray();
+      };
+    }
+    if (componentType == long.class) {
+      return (_, object, sink) -> {
+        sink.startArray();
+        for (var value : (long[]) object) {
+          sink.element();
+          sink.longValue(value);
+        }
+        sink.endArray();
+      };
+    }
+    if (componentType == float.class) {
+      return (_, object, sink) -> {
+        sink.startArray();
+        for (var value : (float[]) object) {
+          sink.element();
+          sink.floatValue(value);
+        }
+        sink.endArray();
+      };
+    }
+    return (_, object, sink) -> {  // double
+      sink.startArray();
+      for (var value : (double[]) object) {
+        sink.element();
+        sink.doubleValue(value);
+      }
+      sink.endArray();
+    };
+  }
+
+  /**
+   * Minimum number of elements of a list written in parallel.
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+  /**
+   * Number of elements of a segment written by a task.
+   */
+  private static final int SEGMENT_SIZE = 1 << 12;
+
+  private static final VarHandle MAP;
+  static {
+    try {
+      MAP = LOOKUP.findVarHandle(JSONWriter.class, "map", Map.class);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * The configured generators, an immutable map that {@link #configure(Class, Function)} replaces
+   * by a copy (copy on write), so a writer can be shared between threads and reading the map
+   * does not require any lock.
+   */
+  private volatile Map<Class<?>, Generator> map = Map.of();
+  private final ClassValue<Generator> generatorClassValue;
+  private final boolean parallel;
+
+  public JSONWriter(Feature... features) {
+    var featureList = List.of(features);
+    generatorClassValue = featureList.contains(Feature.GENERATED_SERIALIZERS)? SERIALIZER_CLASS_VALUE: GENERATOR_CLASS_VALUE;
+    parallel = featureList.contains(Feature.PARALLEL_LISTS);
+  }
 
   public <T> void configure(Class<? extends T> type, Function<? super T, String> function) {
     Objects.requireNonNull(type);
     Objects.requireNonNull(function);
-    var result = map.putIfAbsent(type, (_, object) -> function.apply(type.cast(object)));
-    if (result != null) {
-      throw new IllegalStateException("already a function registered for type " + type.getName());
+    Generator generator = (_, object, sink) -> sink.jsonValue(function.apply(type.cast(object)));
+    for(;;) {
+      var map = this.map;
+      if (map.containsKey(type)) {
+        throw new IllegalStateException("already a function registered for type " + type.getName());
+      }
+      var newMap = new HashMap<>(map);
+      newMap.put(type, generator);
+      if (MAP.compareAndSet(this, map, Map.copyOf(newMap))) {
+        return;
+      }
     }
   }
 
   public String toJSON(Object o) {
-    return switch (o) {
-      case null -> "null";
-      case Boolean _, Integer _, Long _, Float _, Double _ -> o.toString();
-      case String value -> "\"" + value + "\"";
+    var builder = new StringBuilder();
+    writeJSON(o, builder);
+    return builder.toString();
+  }
+
+  public void writeJSON(Object o, Appendable appendable) {
+    Objects.requireNonNull(appendable);
+    var sink = new Sink.CharSink(appendable);
+    write(o, sink);
+    sink.flush();
+  }
+
+  public void writeJSON(Object o, OutputStream outputStream) {
+    Objects.requireNonNull(outputStream);
+    var sink = new Sink.Utf8Sink(outputStream);
+    write(o, sink);
+    sink.flush();
+  }
+
+  /**
+   * Returns the binary encoding of an object, the encoding is described in {@link BinaryJSON}.
+   * The values written by a function registered with {@link #configure(Class, Function)}
+   * are parsed and re-encoded.
+   *
+   * @param o the object to encode.
+   * @return the binary encoding of the object.
+   */
+  public byte[] toBinary(Object o) {
+    var outputStream = new ByteArrayOutputStream();
+    writeBinary(o, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * Writes the binary encoding of an object, the encoding is described in {@link BinaryJSON}.
+   *
+   * @param o the object to encode.
+   * @param outputStream the output stream, it is not closed by this method.
+   * @throws java.io.UncheckedIOException if an I/O error occurs.
+   */
+  public void writeBinary(Object o, OutputStream outputStream) {
+    Objects.requireNonNull(outputStream);
+    var sink = new Sink.BinarySink(outputStream);
+    write(o, sink);
+    sink.flush();
+  }
+
+  private void write(Object o, Sink sink) {
+    switch (o) {
+      case null -> sink.nullValue();
+      case Boolean value -> sink.booleanValue(value);
+      case Integer value -> sink.intValue(value);
+      case Long value -> sink.longValue(value);
+      case Float value -> sink.floatValue(value);
+      case Double value -> sink.doubleValue(value);
+      case String value -> sink.stringValue(value);
       default -> {
         var type = o.getClass();
         var generator = map.get(type);
         if (generator == null) {
-          generator = GENERATOR_CLASS_VALUE.get(type);
+          generator = BUILTIN_CLASS_VALUE.get(type);
+          if (generator == null) {
+            generator = generatorClassValue.get(type);
+          }
         }
-        yield generator.generate(this, o);
+        generator.generate(this, o, sink);
       }
-    };
+    }
+  }
+
+  private void writeCollection(Collection<?> collection, Sink sink) {
+    if (parallel && collection.size() >= PARALLEL_THRESHOLD) {
+      writeInParallel(collection instanceof List<?> list && list instanceof RandomAccess? list: Arrays.asList(collection.toArray()), sink);
+      return;
+    }
+    sink.startArray();
+    for (var element : collection) {
+      sink.element();
+      write(element, sink);
+    }
+    sink.endArray();
+  }
+
+  private void writeMap(Map<?, ?> map, Sink sink) {
+    sink.startObject();
+    for (var entry : map.entrySet()) {
+      sink.key(switch (entry.getKey()) {
+        case String key -> key;
+        case Enum<?> key -> key.name();
+        case null, default -> throw new IllegalStateException("invalid key " + entry.getKey() + ", a key should be a string or an enum");
+      });
+      write(entry.getValue(), sink);
+    }
+    sink.endObject();
+  }
+
+  /**
+   * Writes the segments of a list in parallel into forks of the sink, then joins the forks in order.
+   * The configured functions may be called concurrently.
+   */
+  private void writeInParallel(List<?> list, Sink sink) {
+    var size = list.size();
+    var forks = IntStream.range(0, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)
+        .parallel()
+        .mapToObj(segment -> {
+          var fork = sink.fork();
+          var end = Math.min(size, (segment + 1) * SEGMENT_SIZE);
+          for(var i = segment * SEGMENT_SIZE; i < end; i++) {
+            fork.element();
+            write(list.get(i), fork);
+          }
+          return fork;
+        })
+        .toList();
+    sink.startArray();
+    for (var fork : forks) {
+      sink.element();
+      sink.join(fork);
+    }
+    sink.endArray();
   }
 }
@@ -0,0 +1,201 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A perfect hash table of the keys known by an object builder.
+ *
+ * The hash function is computed on the characters of the lexer buffer and its multiplier is chosen
+ * when the table is created so that two known keys are never in the same slot,
+ * so finding a key is one hash, one slot and one comparison of the characters.
+ * A key found returns its index, the position of the key in the iteration order of the keys
+ * of the table, so an object builder can find the property of a key in an array without a map lookup,
+ * and the canonical String of the key is {@link #key(int) available} so the parser does not allocate a String per key.
+ */
+final class KeyTable {
+  private static final int MAX_SEEDS = 64;
+  /**
+   * The number of times the size of the table is doubled before giving up.
+   */
+  private static final int MAX_GROWTHS = 4;
+
+  /**
+   * For each slot, the key and its index, null and -1 if the slot is empty.
+   */
+  private final String[] keys;
+  private final int[] indexes;
+  /**
+   * The keys in the order of their index.
+   */
+  private final String[] keysByIndex;
+  private final int multiplier;
+
+  private KeyTable(String[] keys, int[] indexes, String[] keysByIndex, int multiplier) {
+    this.keys = keys;
+    this.indexes = indexes;
+    this.keysByIndex = keysByIndex;
+    this.multiplier = multiplier;
+  }
+
+  /**
+   * Creates a key table from a set of keys, the index of a key is its position in the iteration order of the set.
+   * Some keys have the same hash whatever the multiplier, by example "a" and "\u0000a",
+   * so the number of tries is bounded and if no multiplier separates the keys, there is no key table
+   * and the parser decodes the keys.
+   *
+   * @param keys the known keys.
+   * @return a new key table or null if the keys can not be separated.
+   */
+  static KeyTable of(Set<String> keys) {
+    Objects.requireNonNull(keys);
+    var keysByIndex = keys.toArray(String[]::new);
+    var size = Integer.highestOneBit(Math.max(1, keysByIndex.length * 2 - 1)) << 1;
+    for(var growth = 0; growth <= MAX_GROWTHS; growth++, size <<= 1) {
+      for(var seed = 0; seed < MAX_SEEDS; seed++) {
+        var multiplier = 31 + 2 * seed;  // an odd multiplier
+        var table = new String[size];
+        var indexes = new int[size];
+        if (fill(table, indexes, keysByIndex, multiplier)) {
+          return new KeyTable(table, indexes, keysByIndex, multiplier);
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean fill(String[] table, int[] indexes, String[] keysByIndex, int multiplier) {
+    Arrays.fill(indexes, -1);
+    for(var index = 0; index < keysByIndex.length; index++) {
+      var key = keysByIndex[index];
+      var slot = hash(key, multiplier) & (table.length - 1);
+      if (table[slot] != null) {
+        return false;
+      }
+      table[slot] = key;
+      indexes[slot] = index;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of keys, the index of a key is between 0 (inclusive) and the number of keys (exclusive).
+   */
+  int size() {
+    return keysByIndex.length;
+  }
+
+  /**
+   * Returns the canonical String of the key of an index.
+   *
+   * @param index the index of a key returned by a {@code findIndex} method.
+   * @return the canonical String of the key.
+   */
+  String key(int index) {
+    return keysByIndex[index];
+  }
+
+  private static int mix(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int hash(String key, int multiplier) {
+    var hash = 0;
+    for(var i = 0; i < key.length(); i++) {
+      hash = hash * multiplier + key.charAt(i);
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Finds the index of the key corresponding to the characters of a buffer.
+   *
+   * @param buffer the buffer containing the characters.
+   * @param start the index of the first character of the key.
+   * @param end the index after the last character of the key.
+   * @return the index of the key or -1 if the key is not a known key.
+   */
+  int findIndex(char[] buffer, int start, int end) {
+    var hash = 0;
+    for(var i = start; i < end; i++) {
+      hash = hash * multiplier + buffer[i];
+    }
+    var slot = mix(hash) & (keys.length - 1);
+    var key = keys[slot];
+    if (key == null || key.length() != end - start) {
+      return -1;
+    }
+    for(var i = 0; i < key.length(); i++) {
+      if (key.charAt(i) != buffer[start + i]) {
+        return -1;
+      }
+    }
+    return indexes[slot];
+  }
+
+  /**
+   * Finds the index of the key corresponding to the UTF-8 bytes of a buffer.
+   * Only the ASCII keys are found, the hash of an ASCII key is the same on its characters and on its bytes,
+   * for the other keys, this method returns -1 and the caller should decode the bytes.
+   *
+   * @param buffer the buffer containing the bytes.
+   * @param start the index of the first byte of the key.
+   * @param end the index after the last byte of the key.
+   * @return the index of the key or -1 if the key is not a known ASCII key.
+   */
+  int findIndex(byte[] buffer, int start, int end) {
+    var hash = 0;
+    for(var i = start; i < end; i++) {
+      hash = hash * multiplier + buffer[i];
+    }
+    var slot = mix(hash) & (keys.length - 1);
+    var key = keys[slot];
+    if (key == null || key.length() != end - start) {
+      return -1;
+    }
+    for(var i = 0; i < key.length(); i++) {
+      var b = buffer[start + i];
+      if (b < 0 || key.charAt(i) != b) {
+        return -1;
+      }
+    }
+    return indexes[slot];
+  }
+
+  /**
+   * Finds the index of the key corresponding to the UTF-8 bytes of a memory segment,
+   * like {@link #findIndex(byte[], int, int)}, only the ASCII keys are found.
+   *
+   * @param segment the segment containing the bytes.
+   * @param start the offset of the first byte of the key.
+   * @param end the offset after the last byte of the key.
+   * @return the index of the key or -1 if the key is not a known ASCII key.
+   */
+  int findIndex(MemorySegment segment, long start, long end) {
+    var hash = 0;
+    for(var i = start; i < end; i++) {
+      hash = hash * multiplier + segment.get(ValueLayout.JAVA_BYTE, i);
+    }
+    var slot = mix(hash) & (keys.length - 1);
+    var key = keys[slot];
+    if (key == null || key.length() != end - start) {
+      return -1;
+    }
+    for(var i = 0; i < key.length(); i++) {
+      var b = segment.get(ValueLayout.JAVA_BYTE, start + i);
+      if (b < 0 || key.charAt(i) != b) {
+        return -1;
+      }
+    }
+    return indexes[slot];
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(keysByIndex);
+  }
+}
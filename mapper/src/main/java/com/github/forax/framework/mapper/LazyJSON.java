@@ -0,0 +1,290 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.Kind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.github.forax.framework.mapper.ToyJSONParser.Kind.*;
+
+/**
+ * A JSON value decoded on demand.
+ *
+ * {@link #parse(String)} only indexes the structure of the text in one pass,
+ * the objects, the arrays, the strings and the numbers are decoded only when they are accessed,
+ * so reading a few values of a large document does not pay for the values that are not read.
+ * A {@code LazyJSON} is a view on the text and the index, navigating creates small views
+ * that share the same text and the same index.
+ *
+ * <pre>
+ *   var event = LazyJSON.parse(text);
+ *   var id = event.get("id").orElseThrow().asLong();
+ *   var city = event.get("address").flatMap(address -> address.get("city")).map(LazyJSON::asString);
+ * </pre>
+ */
+public final class LazyJSON {
+  private static final Kind[] KINDS = Kind.values();
+
+  private final String text;
+  private final int[] index;
+  private final int entry;
+
+  private LazyJSON(String text, int[] index, int entry) {
+    this.text = text;
+    this.index = index;
+    this.entry = entry;
+  }
+
+  /**
+   * Indexes a JSON text, the text must be an object or an array.
+   *
+   * @param text a JSON text
+   * @return the value corresponding to the whole text.
+   * @throws IllegalStateException if the text is not a valid JSON text.
+   */
+  public static LazyJSON parse(String text) {
+    return parse(text, JSONReader.Limits.DEFAULT);
+  }
+
+  /**
+   * Indexes a JSON text like {@link #parse(String)} but rejects a text that exceeds the limits.
+   *
+   * @param text a JSON text
+   * @param limits the maximum depth and the maximum size in characters of the text.
+   * @return the value corresponding to the whole text.
+   * @throws IllegalStateException if the text is not a valid JSON text or if it exceeds the limits.
+   */
+  public static LazyJSON parse(String text, JSONReader.Limits limits) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(limits);
+    return new LazyJSON(text, ToyJSONParser.index(text, limits.maxDepth(), limits.maxSize()), 0);
+  }
+
+  private Kind kind(int entry) {
+    return KINDS[index[3 * entry]];
+  }
+
+  private int start(int entry) {
+    return index[3 * entry + 1];
+  }
+
+  private int end(int entry) {
+    return index[3 * entry + 2];
+  }
+
+  private int next(int entry) {
+    return switch (kind(entry)) {
+      case LEFT_CURLY, LEFT_BRACKET -> end(entry) + 1;
+      default -> entry + 1;
+    };
+  }
+
+  private IllegalStateException error(String expected) {
+    return new IllegalStateException("expect " + expected + " but the value is " + kind(entry) + " at " + start(entry));
+  }
+
+  /**
+   * Returns true if the value is a JSON object.
+   * @return true if the value is a JSON object.
+   */
+  public boolean isObject() {
+    return kind(entry) == LEFT_CURLY;
+  }
+
+  /**
+   * Returns true if the value is a JSON array.
+   * @return true if the value is a JSON array.
+   */
+  public boolean isArray() {
+    return kind(entry) == LEFT_BRACKET;
+  }
+
+  /**
+   * Returns true if the value is null.
+   * @return true if the value is null.
+   */
+  public boolean isNull() {
+    return kind(entry) == NULL;
+  }
+
+  /**
+   * Returns the number of properties of an object or the number of elements of an array.
+   * @return the number of properties of an object or the number of elements of an array.
+   * @throws IllegalStateException if the value is neither an object nor an array.
+   */
+  public int size() {
+    var kind = kind(entry);
+    if (kind != LEFT_CURLY && kind != LEFT_BRACKET) {
+      throw error("an object or an array");
+    }
+    var step = kind == LEFT_CURLY? 2: 1;
+    var size = 0;
+    for(var current = entry + 1; current != end(entry); current = next(current + step - 1)) {
+      size++;
+    }
+    return size;
+  }
+
+  /**
+   * Returns the keys of an object in the order of the text.
+   * @return the keys of an object in the order of the text.
+   * @throws IllegalStateException if the value is not an object.
+   */
+  public List<String> keys() {
+    if (kind(entry) != LEFT_CURLY) {
+      throw error("an object");
+    }
+    var keys = new ArrayList<String>();
+    for(var current = entry + 1; current != end(entry); current = next(current + 1)) {
+      keys.add(string(current));
+    }
+    return List.copyOf(keys);
+  }
+
+  /**
+   * Returns the value of a property of an object.
+   * The keys without escape sequence are compared with the text without being decoded.
+   *
+   * @param key the key of the property.
+   * @return the value of the property or an empty optional if there is no such property.
+   * @throws IllegalStateException if the value is not an object.
+   */
+  public Optional<LazyJSON> get(String key) {
+    Objects.requireNonNull(key);
+    if (kind(entry) != LEFT_CURLY) {
+      throw error("an object");
+    }
+    for(var current = entry + 1; current != end(entry); current = next(current + 1)) {
+      var start = start(current);
+      var end = end(current);
+      var matches = text.indexOf('\\', start, end) == -1?
+          end - start == key.length() && text.regionMatches(start, key, 0, key.length()):
+          string(current).equals(key);
+      if (matches) {
+        return Optional.of(new LazyJSON(text, index, current + 1));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns an element of an array.
+   *
+   * @param elementIndex the index of the element.
+   * @return the element of the array.
+   * @throws IllegalStateException if the value is not an array.
+   * @throws IndexOutOfBoundsException if the index is not a valid index.
+   */
+  public LazyJSON get(int elementIndex) {
+    if (kind(entry) != LEFT_BRACKET) {
+      throw error("an array");
+    }
+    if (elementIndex < 0) {
+      throw new IndexOutOfBoundsException(elementIndex);
+    }
+    var current = entry + 1;
+    for(var i = 0; i < elementIndex; i++) {
+      if (current == end(entry)) {
+        throw new IndexOutOfBoundsException(elementIndex);
+      }
+      current = next(current);
+    }
+    if (current == end(entry)) {
+      throw new IndexOutOfBoundsException(elementIndex);
+    }
+    return new LazyJSON(text, index, current);
+  }
+
+  /**
+   * Decodes the value as a string.
+   * @return the decoded string.
+   * @throws IllegalStateException if the value is not a string.
+   */
+  public String asString() {
+    if (kind(entry) != STRING) {
+      throw error("a string");
+    }
+    return string(entry);
+  }
+
+  private String string(int entry) {
+    var start = start(entry);
+    var end = end(entry);
+    if (text.indexOf('\\', start, end) == -1) {
+      return text.substring(start, end);
+    }
+    return ToyJSONParser.unescape(text, start, end);
+  }
+
+  /**
+   * Decodes the value as an int.
+   * @return the decoded int.
+   * @throws IllegalStateException if the value is not an integer.
+   * @throws NumberFormatException if the integer does not fit in an int.
+   */
+  public int asInt() {
+    var value = asLong();
+    if (value != (int) value) {
+      throw new NumberFormatException("the integer " + text() + " does not fit in an int");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Decodes the value as a long.
+   * @return the decoded long.
+   * @throws IllegalStateException if the value is not an integer, an integer that does not fit in a long
+   *         is indexed as a double.
+   */
+  public long asLong() {
+    if (kind(entry) != INTEGER) {
+      throw error("an integer");
+    }
+    return ToyJSONParser.decodeLong(text, start(entry), end(entry));
+  }
+
+  /**
+   * Decodes the value as a double.
+   * @return the decoded double.
+   * @throws IllegalStateException if the value is not a number.
+   */
+  public double asDouble() {
+    var kind = kind(entry);
+    if (kind != INTEGER && kind != DOUBLE) {
+      throw error("a number");
+    }
+    return ToyJSONParser.decodeDouble(text, start(entry), end(entry));
+  }
+
+  /**
+   * Decodes the value as a boolean.
+   * @return the decoded boolean.
+   * @throws IllegalStateException if the value is not a boolean.
+   */
+  public boolean asBoolean() {
+    return switch (kind(entry)) {
+      case TRUE -> true;
+      case FALSE -> false;
+      default -> throw error("a boolean");
+    };
+  }
+
+  /**
+   * Returns the JSON text of the value, by example to bind it using {@link JSONReader#parseJSON(String, java.lang.reflect.Type)}.
+   * @return the JSON text of the value.
+   */
+  public String text() {
+    return switch (kind(entry)) {
+      case LEFT_CURLY, LEFT_BRACKET -> text.substring(start(entry), end(end(entry)));
+      case STRING -> text.substring(start(entry) - 1, end(entry) + 1);
+      default -> text.substring(start(entry), end(entry));
+    };
+  }
+
+  @Override
+  public String toString() {
+    return text();
+  }
+}
@@ -0,0 +1,108 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator on the lines of a UTF-8 text stored in a memory segment (by example a memory mapped file),
+ * each line is a slice of the segment, the bytes are neither copied nor decoded.
+ *
+ * A spliterator splits in the middle of its range, then moves the split point after the next '\n',
+ * so a line is never cut in two. The empty lines are skipped and a '\r' before a '\n' is removed.
+ * The spliterators only read the segment, so they can be traversed in parallel.
+ */
+final class LineSpliterator implements Spliterator<MemorySegment> {
+  private static final long MIN_SPLIT_SIZE = 1 << 16;
+
+  private final MemorySegment segment;
+  private long start;
+  private final long end;
+
+  LineSpliterator(MemorySegment segment) {
+    this(segment, 0, segment.byteSize());
+  }
+
+  private LineSpliterator(MemorySegment segment, long start, long end) {
+    this.segment = segment;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the index of the first '\n' at or after index or end if there is none.
+   */
+  private long lineEnd(long index) {
+    for(; index < end; index++) {
+      if (segment.get(ValueLayout.JAVA_BYTE, index) == '\n') {
+        return index;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Splits the lines of a segment into spliterators of roughly chunkSize bytes, in the order of the lines.
+   */
+  static List<Spliterator<MemorySegment>> chunks(MemorySegment segment, long chunkSize) {
+    var chunks = new ArrayList<Spliterator<MemorySegment>>();
+    split(new LineSpliterator(segment), chunkSize, chunks);
+    return chunks;
+  }
+
+  private static void split(Spliterator<MemorySegment> spliterator, long chunkSize, List<Spliterator<MemorySegment>> chunks) {
+    if (spliterator.estimateSize() > chunkSize) {
+      var prefix = spliterator.trySplit();
+      if (prefix != null) {
+        split(prefix, chunkSize, chunks);
+        split(spliterator, chunkSize, chunks);
+        return;
+      }
+    }
+    chunks.add(spliterator);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super MemorySegment> action) {
+    while (start < end) {
+      var lineStart = start;
+      var lineEnd = lineEnd(lineStart);
+      start = lineEnd + 1;
+      if (lineEnd != lineStart && segment.get(ValueLayout.JAVA_BYTE, lineEnd - 1) == '\r') {
+        lineEnd--;
+      }
+      if (lineEnd != lineStart) {
+        action.accept(segment.asSlice(lineStart, lineEnd - lineStart));
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Spliterator<MemorySegment> trySplit() {
+    if (end - start < MIN_SPLIT_SIZE) {
+      return null;
+    }
+    var middle = lineEnd(start + (end - start) / 2);
+    if (middle >= end - 1) {
+      return null;
+    }
+    var prefix = new LineSpliterator(segment, start, middle + 1);
+    start = middle + 1;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return end - start;  // in bytes, the number of lines is not known
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | IMMUTABLE;
+  }
+}
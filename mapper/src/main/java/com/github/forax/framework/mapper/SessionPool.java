@@ -0,0 +1,59 @@
+package com.github.forax.framework.mapper;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A pool of the sessions not currently used by a parsing, an empty slot is null.
+ *
+ * The pool is not tied to the threads, so a virtual thread can be unmounted in the middle of a parsing
+ * and the number of sessions does not depend on the number of threads.
+ * A session is taken by the parsing that removes it from its slot, so it is never shared,
+ * if the pool is empty, a new session is created, if the pool is full, the session is dropped.
+ * The search of a slot starts at a slot that depends on the current thread, so the threads
+ * do not all compete for the first slot.
+ *
+ * @param <S> the type of the sessions.
+ */
+final class SessionPool<S> {
+  /**
+   * The number of sessions kept by a pool, a power of two.
+   */
+  private static final int SIZE = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1;
+
+  private final Supplier<? extends S> factory;
+  private final AtomicReferenceArray<S> sessions = new AtomicReferenceArray<>(SIZE);
+
+  SessionPool(Supplier<? extends S> factory) {
+    this.factory = Objects.requireNonNull(factory);
+  }
+
+  /**
+   * Takes a session from the pool or creates a new one if the pool is empty.
+   */
+  S acquire() {
+    var slot = (int) Thread.currentThread().threadId();
+    for (var i = 0; i < SIZE; i++, slot++) {
+      var index = slot & (SIZE - 1);
+      var session = sessions.get(index);
+      if (session != null && sessions.compareAndSet(index, session, null)) {
+        return session;
+      }
+    }
+    return factory.get();
+  }
+
+  /**
+   * Gives back a session to the pool, the session is dropped if the pool is full.
+   */
+  void release(S session) {
+    var slot = (int) Thread.currentThread().threadId();
+    for (var i = 0; i < SIZE; i++, slot++) {
+      var index = slot & (SIZE - 1);
+      if (sessions.get(index) == null && sessions.compareAndSet(index, null, session)) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,832 @@
+package com.github.forax.framework.mapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The destination of a {@link JSONWriter}, all the generators emit their JSON text into a sink,
+ * so no intermediary string is created.
+ *
+ * The separators between the properties of an object or the elements of an array are managed
+ * by the sink, a generator only has to call {@link #key(Key)} before each property and
+ * {@link #element()} before each element.
+ *
+ * A {@link TextSink} writes a JSON text, a {@link BinarySink} writes the binary encoding
+ * described in {@link BinaryJSON}.
+ */
+abstract sealed class Sink {
+  /**
+   * A pre-encoded property key, the text contains the quoted name followed by the colon,
+   * utf8 is the text encoded in UTF-8 and binary is the key in the binary encoding.
+   */
+  record Key(String text, byte[] utf8, byte[] binary) {
+    Key {
+      Objects.requireNonNull(text);
+      Objects.requireNonNull(utf8);
+      Objects.requireNonNull(binary);
+    }
+
+    static Key of(String name) {
+      var builder = new StringBuilder();
+      new CharSink(builder).stringValue(name);
+      var text = builder.append(": ").toString();
+      var binary = new ByteArrayOutputStream();
+      var binarySink = new BinarySink(binary);
+      binarySink.stringValue(name);
+      binarySink.flush();
+      return new Key(text, text.getBytes(StandardCharsets.UTF_8), binary.toByteArray());
+    }
+  }
+
+  abstract void startObject();
+
+  abstract void key(Key key);
+
+  /**
+   * Writes a key that is not known in advance, by example the key of a map.
+   */
+  abstract void key(String name);
+
+  abstract void endObject();
+
+  abstract void startArray();
+
+  abstract void element();
+
+  abstract void endArray();
+
+  abstract void nullValue();
+
+  abstract void booleanValue(boolean value);
+
+  abstract void intValue(int value);
+
+  abstract void longValue(long value);
+
+  /**
+   * Writes the shortest decimal representation that rounds to the float value.
+   */
+  abstract void floatValue(float value);
+
+  /**
+   * Writes the shortest decimal representation that rounds to the double value.
+   */
+  abstract void doubleValue(double value);
+
+  abstract void stringValue(String value);
+
+  /**
+   * Writes a value already encoded as a JSON text, by example by a function registered
+   * with {@link JSONWriter#configure(Class, java.util.function.Function)}.
+   */
+  abstract void jsonValue(String json);
+
+  abstract void flush();
+
+  /**
+   * Returns a new sink with the same encoding that keeps its content in memory,
+   * so a part of a JSON text can be written by another thread.
+   * @see #join(Sink)
+   */
+  abstract Sink fork();
+
+  /**
+   * Appends the content of a sink created by {@link #fork()}.
+   */
+  abstract void join(Sink fork);
+
+  /**
+   * Returns the number of bytes of a string encoded in UTF-8.
+   */
+  static int utf8Length(String text) {
+    var length = text.length();
+    var utf8Length = 0;
+    for(var i = 0; i < length; i++) {
+      var c = text.charAt(i);
+      if (c < 0x80) {
+        utf8Length++;
+      } else if (c < 0x800) {
+        utf8Length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+        utf8Length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        utf8Length++;
+      } else {
+        utf8Length += 3;
+      }
+    }
+    return utf8Length;
+  }
+
+  /**
+   * Encodes the characters of the text between from (inclusive) and to (exclusive) in UTF-8,
+   * the buffer must have at least 3 bytes available per character.
+   * @return the position after the last byte written.
+   */
+  static int encodeUtf8(String text, int from, int to, byte[] buffer, int position) {
+    for(var i = from; i < to; i++) {
+      var c = text.charAt(i);
+      if (c < 0x80) {
+        buffer[position++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+        var codePoint = Character.toCodePoint(c, text.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        buffer[position++] = '?';  // same replacement as String.getBytes()
+      } else {
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Returns the end of the next chunk of characters that fits in maxLength bytes once encoded in UTF-8,
+   * a surrogate pair is never split.
+   */
+  static int utf8ChunkEnd(String text, int from, int to, int maxLength) {
+    var end = Math.min(to, from + maxLength / 3);
+    if (end < to && end > from + 1 && Character.isHighSurrogate(text.charAt(end - 1))) {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * A sink that writes a JSON text, the subclasses define how the characters are stored.
+   */
+  abstract static sealed class TextSink extends Sink {
+
+    /**
+     * The escape sequence of the ASCII characters that should be escaped in a JSON string, null otherwise.
+     */
+    private static final String[] ESCAPES = new String[128];
+    static {
+      for(var c = 0; c < 0x20; c++) {
+        ESCAPES[c] = "\\u%04x".formatted(c);
+      }
+      ESCAPES['"'] = "\\\"";
+      ESCAPES['\\'] = "\\\\";
+      ESCAPES['\b'] = "\\b";
+      ESCAPES['\f'] = "\\f";
+      ESCAPES['\n'] = "\\n";
+      ESCAPES['\r'] = "\\r";
+      ESCAPES['\t'] = "\\t";
+    }
+
+    /**
+     * The strings shorter than this length are scanned one character at a time.
+     */
+    private static final int WORD_SCAN_MIN_LENGTH = 16;
+    private static final int CHUNK_SIZE = 256;
+
+    private boolean first = true;
+    /**
+     * The characters of a chunk of the current string and the segment on them that reads 4 chars at a time,
+     * allocated by the first string long enough to be scanned by words.
+     */
+    private char[] chunk;
+    private MemorySegment chunkSegment;
+
+    abstract void append(char c);
+
+    abstract void append(String text);
+
+    /**
+     * Appends the characters of the text between from (inclusive) and to (exclusive).
+     */
+    abstract void append(String text, int from, int to);
+
+    abstract void append(Key key);
+
+    abstract void append(int value);
+
+    abstract void append(long value);
+
+    @Override
+    final void startObject() {
+      append('{');
+      first = true;
+    }
+
+    @Override
+    final void key(Key key) {
+      if (!first) {
+        append(", ");
+      }
+      first = false;
+      append(key);
+    }
+
+    @Override
+    final void key(String name) {
+      if (!first) {
+        append(", ");
+      }
+      first = false;
+      stringValue(name);
+      append(": ");
+    }
+
+    @Override
+    final void endObject() {
+      append('}');
+      first = false;
+    }
+
+    @Override
+    final void startArray() {
+      append('[');
+      first = true;
+    }
+
+    @Override
+    final void element() {
+      if (!first) {
+        append(", ");
+      }
+      first = false;
+    }
+
+    @Override
+    final void endArray() {
+      append(']');
+      first = false;
+    }
+
+    @Override
+    final void nullValue() {
+      append("null");
+    }
+
+    @Override
+    final void booleanValue(boolean value) {
+      append(value? "true": "false");
+    }
+
+    @Override
+    final void intValue(int value) {
+      append(value);
+    }
+
+    @Override
+    final void longValue(long value) {
+      append(value);
+    }
+
+    /**
+     * Writes a string with its characters escaped as specified by RFC 8259,
+     * the runs of characters that do not need to be escaped are appended in bulk.
+     * The characters of a long string are copied by chunks into an array and scanned 4 chars at a time,
+     * only the words that contain a character to escape are scanned one character at a time
+     * (see {@link ToyJSONParser#skipPlainChars(MemorySegment, int, int)}).
+     */
+    @Override
+    final void stringValue(String value) {
+      append('"');
+      var length = value.length();
+      var from = 0;
+      if (length < WORD_SCAN_MIN_LENGTH) {
+        for(var i = 0; i < length; i++) {
+          from = escape(value, i, value.charAt(i), from);
+        }
+      } else {
+        if (chunk == null) {
+          chunk = new char[CHUNK_SIZE];
+          chunkSegment = MemorySegment.ofArray(chunk);
+        }
+        for(var start = 0; start < length; start += CHUNK_SIZE) {
+          var limit = Math.min(CHUNK_SIZE, length - start);
+          value.getChars(start, start + limit, chunk, 0);
+          for(var i = ToyJSONParser.skipPlainChars(chunkSegment, 0, limit); i < limit; i = ToyJSONParser.skipPlainChars(chunkSegment, i + 1, limit)) {
+            from = escape(value, start + i, chunk[i], from);
+          }
+        }
+      }
+      if (from == 0) {
+        append(value);
+      } else if (from != length) {
+        append(value, from, length);
+      }
+      append('"');
+    }
+
+    /**
+     * Appends the escape sequence of the character c at index if it should be escaped,
+     * preceded by the characters not yet appended since from.
+     * @return the index of the first character not yet appended.
+     */
+    private int escape(String value, int index, char c, int from) {
+      if (c >= ESCAPES.length || ESCAPES[c] == null) {
+        return from;
+      }
+      if (from != index) {
+        append(value, from, index);
+      }
+      append(ESCAPES[c]);
+      return index + 1;
+    }
+
+    @Override
+    final void jsonValue(String json) {
+      append(json);
+    }
+  }
+
+  /**
+   * A sink that appends the characters to an {@link Appendable}.
+   * If the appendable is not a {@link StringBuilder}, the characters are buffered
+   * and appended by chunks.
+   */
+  static final class CharSink extends TextSink {
+    private static final int FLUSH_THRESHOLD = 8_192;
+
+    private final Appendable appendable;
+    private final StringBuilder builder;
+
+    CharSink(Appendable appendable) {
+      this.appendable = appendable;
+      this.builder = appendable instanceof StringBuilder builder? builder: new StringBuilder(FLUSH_THRESHOLD + 64);
+    }
+
+    private void flushIfFull() {
+      if (builder.length() >= FLUSH_THRESHOLD && builder != appendable) {
+        flush();
+      }
+    }
+
+    @Override
+    void append(char c) {
+      builder.append(c);
+    }
+
+    @Override
+    void append(String text) {
+      builder.append(text);
+      flushIfFull();
+    }
+
+    @Override
+    void append(String text, int from, int to) {
+      builder.append(text, from, to);
+      flushIfFull();
+    }
+
+    @Override
+    void append(Key key) {
+      builder.append(key.text());
+      flushIfFull();
+    }
+
+    @Override
+    void append(int value) {
+      builder.append(value);
+    }
+
+    @Override
+    void append(long value) {
+      builder.append(value);
+    }
+
+    @Override
+    void floatValue(float value) {
+      builder.append(value);
+    }
+
+    @Override
+    void doubleValue(double value) {
+      builder.append(value);
+    }
+
+    @Override
+    Sink fork() {
+      return new CharSink(new StringBuilder());
+    }
+
+    @Override
+    void join(Sink fork) {
+      builder.append(((CharSink) fork).builder);
+      flushIfFull();
+    }
+
+    @Override
+    void flush() {
+      if (builder == appendable) {
+        return;
+      }
+      try {
+        appendable.append(builder);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      builder.setLength(0);
+    }
+  }
+
+  /**
+   * A sink that encodes the characters in UTF-8 into a buffer that is written
+   * to an {@link OutputStream} when full.
+   */
+  static final class Utf8Sink extends TextSink {
+    private static final int BUFFER_SIZE = 8_192;
+
+    private final OutputStream outputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private final StringBuilder numberText = new StringBuilder(32);  // reused to format the floating point numbers
+
+    Utf8Sink(OutputStream outputStream) {
+      this.outputStream = outputStream;
+    }
+
+    private void ensureCapacity(int length) {
+      if (position + length > buffer.length) {
+        flush();
+      }
+    }
+
+    @Override
+    void append(char c) {
+      if (c < 0x80) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+        return;
+      }
+      append(String.valueOf(c));
+    }
+
+    @Override
+    void append(String text) {
+      append(text, 0, text.length());
+    }
+
+    @Override
+    void append(String text, int from, int to) {
+      while (from < to) {
+        var end = utf8ChunkEnd(text, from, to, buffer.length);
+        ensureCapacity(3 * (end - from));
+        position = encodeUtf8(text, from, end, buffer, position);
+        from = end;
+      }
+    }
+
+    @Override
+    void append(Key key) {
+      var utf8 = key.utf8();
+      if (utf8.length > buffer.length) {
+        flush();
+        write(utf8, utf8.length);
+        return;
+      }
+      ensureCapacity(utf8.length);
+      System.arraycopy(utf8, 0, buffer, position, utf8.length);
+      position += utf8.length;
+    }
+
+    @Override
+    void append(int value) {
+      append((long) value);
+    }
+
+    @Override
+    void append(long value) {
+      ensureCapacity(20);  // Long.MIN_VALUE has 19 digits and a sign
+      if (value < 0) {
+        if (value == Long.MIN_VALUE) {
+          append(Long.toString(value));
+          return;
+        }
+        buffer[position++] = '-';
+        value = -value;
+      }
+      var end = position + digits(value);
+      var index = end;
+      do {
+        buffer[--index] = (byte) ('0' + value % 10);
+        value /= 10;
+      } while (value != 0);
+      position = end;
+    }
+
+    @Override
+    void floatValue(float value) {
+      numberText.setLength(0);
+      numberText.append(value);
+      appendDigits();
+    }
+
+    @Override
+    void doubleValue(double value) {
+      numberText.setLength(0);
+      numberText.append(value);
+      appendDigits();
+    }
+
+    private void appendDigits() {
+      var length = numberText.length();
+      ensureCapacity(length);
+      for(var i = 0; i < length; i++) {
+        buffer[position++] = (byte) numberText.charAt(i);
+      }
+    }
+
+    private static int digits(long value) {
+      var digits = 1;
+      for(var bound = 10L; digits < 19 && value >= bound; bound *= 10) {
+        digits++;
+      }
+      return digits;
+    }
+
+    private void write(byte[] bytes, int length) {
+      try {
+        outputStream.write(bytes, 0, length);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    Sink fork() {
+      return new Utf8Sink(new ByteArrayOutputStream());
+    }
+
+    @Override
+    void join(Sink fork) {
+      var utf8Fork = (Utf8Sink) fork;
+      utf8Fork.flush();
+      flush();
+      try {
+        ((ByteArrayOutputStream) utf8Fork.outputStream).writeTo(outputStream);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    void flush() {
+      write(buffer, position);
+      position = 0;
+    }
+  }
+
+  /**
+   * A sink that writes the binary encoding described in {@link BinaryJSON} into a buffer
+   * that is written to an {@link OutputStream} when full.
+   * A float is encoded as a double and there is no separator so {@link #element()} does nothing.
+   */
+  static final class BinarySink extends Sink {
+    private static final int BUFFER_SIZE = 8_192;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final OutputStream outputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    BinarySink(OutputStream outputStream) {
+      this.outputStream = outputStream;
+    }
+
+    private void ensureCapacity(int length) {
+      if (position + length > buffer.length) {
+        flush();
+      }
+    }
+
+    private void tag(byte tag) {
+      ensureCapacity(1);
+      buffer[position++] = tag;
+    }
+
+    /**
+     * Writes an unsigned varint, the capacity for 10 bytes should be available.
+     */
+    private void varint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[position++] = (byte) value;
+    }
+
+    private void write(byte[] bytes, int length) {
+      try {
+        outputStream.write(bytes, 0, length);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    void startObject() {
+      tag(BinaryJSON.START_OBJECT);
+    }
+
+    @Override
+    void key(Key key) {
+      var binary = key.binary();
+      if (binary.length > buffer.length) {
+        flush();
+        write(binary, binary.length);
+        return;
+      }
+      ensureCapacity(binary.length);
+      System.arraycopy(binary, 0, buffer, position, binary.length);
+      position += binary.length;
+    }
+
+    @Override
+    void key(String name) {
+      stringValue(name);
+    }
+
+    @Override
+    void endObject() {
+      tag(BinaryJSON.END_OBJECT);
+    }
+
+    @Override
+    void startArray() {
+      tag(BinaryJSON.START_ARRAY);
+    }
+
+    @Override
+    void element() {
+      // no separator
+    }
+
+    @Override
+    void endArray() {
+      tag(BinaryJSON.END_ARRAY);
+    }
+
+    @Override
+    void nullValue() {
+      tag(BinaryJSON.NULL);
+    }
+
+    @Override
+    void booleanValue(boolean value) {
+      tag(value? BinaryJSON.TRUE: BinaryJSON.FALSE);
+    }
+
+    @Override
+    void intValue(int value) {
+      longValue(value);
+    }
+
+    @Override
+    void longValue(long value) {
+      ensureCapacity(11);
+      buffer[position++] = BinaryJSON.INTEGER;
+      varint((value << 1) ^ (value >> 63));  // zigzag, small negative values are encoded in few bytes
+    }
+
+    @Override
+    void floatValue(float value) {
+      doubleValue(value);
+    }
+
+    @Override
+    void doubleValue(double value) {
+      ensureCapacity(9);
+      buffer[position++] = BinaryJSON.DOUBLE;
+      LONG_VIEW.set(buffer, position, Double.doubleToRawLongBits(value));
+      position += 8;
+    }
+
+    @Override
+    void stringValue(String value) {
+      ensureCapacity(11);
+      buffer[position++] = BinaryJSON.STRING;
+      varint(utf8Length(value));
+      var length = value.length();
+      for(var from = 0; from < length;) {
+        var end = utf8ChunkEnd(value, from, length, buffer.length);
+        ensureCapacity(3 * (end - from));
+        position = encodeUtf8(value, from, end, buffer, position);
+        from = end;
+      }
+    }
+
+    /**
+     * Parses the JSON text and writes its binary encoding.
+     */
+    @Override
+    void jsonValue(String json) {
+      ToyJSONParser.parse("[" + json + "]", new ToyJSONParser.JSONVisitor() {
+        private int depth;
+
+        private void key(String key) {
+          if (key != null) {
+            BinarySink.this.key(key);
+          }
+        }
+
+        @Override
+        public void value(String key, Object value) {
+          key(key);
+          switch (value) {
+            case null -> nullValue();
+            case String string -> stringValue(string);
+            default -> throw new AssertionError("unknown value " + value);
+          }
+        }
+
+        @Override
+        public void value(String key, int value) {
+          key(key);
+          intValue(value);
+        }
+
+        @Override
+        public void value(String key, long value) {
+          key(key);
+          longValue(value);
+        }
+
+        @Override
+        public void value(String key, double value) {
+          key(key);
+          doubleValue(value);
+        }
+
+        @Override
+        public void value(String key, boolean value) {
+          key(key);
+          booleanValue(value);
+        }
+
+        @Override
+        public void startObject(String key) {
+          depth++;
+          key(key);
+          BinarySink.this.startObject();
+        }
+
+        @Override
+        public void endObject(String key) {
+          depth--;
+          BinarySink.this.endObject();
+        }
+
+        @Override
+        public void startArray(String key) {
+          if (depth++ == 0) {  // the enclosing array
+            return;
+          }
+          key(key);
+          BinarySink.this.startArray();
+        }
+
+        @Override
+        public void endArray(String key) {
+          if (--depth == 0) {
+            return;
+          }
+          BinarySink.this.endArray();
+        }
+      });
+    }
+
+    @Override
+    Sink fork() {
+      return new BinarySink(new ByteArrayOutputStream());
+    }
+
+    @Override
+    void join(Sink fork) {
+      var binaryFork = (BinarySink) fork;
+      binaryFork.flush();
+      flush();
+      try {
+        ((ByteArrayOutputStream) binaryFork.outputStream).writeTo(outputStream);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    void flush() {
+      write(buffer, position);
+      position = 0;
+    }
+  }
+}
@@ -1,18 +1,21 @@
 package com.github.forax.framework.mapper;
 
 import static java.lang.Double.parseDouble;
-import static java.lang.Integer.parseInt;
-import static java.util.regex.Pattern.compile;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.IntStream.rangeClosed;
 import static com.github.forax.framework.mapper.ToyJSONParser.Kind.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.Arrays;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
 
 /**
- * A Toy JSON parser that do not recognize correctly, unicode characters, escaped strings
+ * A Toy JSON parser that do not recognize correctly, unicode characters
  * and i'm sure many more features.
  *
  * @see #parse(String, JSONVisitor)
@@ -23,74 +26,1227 @@ class ToyJSONParser {
   }
 
   enum Kind {
-    NULL("(null)"),
-    TRUE("(true)"),
-    FALSE("(false)"),
-    DOUBLE("([0-9]*\\.[0-9]*)"),
-    INTEGER("([0-9]+)"),
-    STRING("\"([^\\\"]*)\""),
-    LEFT_CURLY("(\\{)"),
-    RIGHT_CURLY("(\\})"),
-    LEFT_BRACKET("(\\[)"),
-    RIGHT_BRACKET("(\\])"),
-    COLON("(\\:)"),
-    COMMA("(\\,)"),
-    BLANK("([ \t]+)")
-    ;
+    NULL,
+    TRUE,
+    FALSE,
+    DOUBLE,
+    INTEGER,
+    STRING,
+    LEFT_CURLY,
+    RIGHT_CURLY,
+    LEFT_BRACKET,
+    RIGHT_BRACKET,
+    COLON,
+    COMMA
+  }
+
+  /**
+   * A hand written lexer that walks the input once.
+   * The lexer returns the {@link Kind} of the current token and records its bounds,
+   * so only the tokens that have a text (strings and numbers) allocate.
+   * A {@link CharLexer} reads characters, a {@link Utf8Lexer} reads the bytes of a text encoded in UTF-8.
+   */
+  private abstract static sealed class Lexer permits CharLexer, Utf8Lexer {
+    abstract Kind next();
+
+    /**
+     * Skips the whitespaces before the next token.
+     * @return false if there is no more character in the input.
+     */
+    abstract boolean skipWhitespaces();
+
+    /**
+     * Returns the index of the current STRING token in a key table or -1 if it is not found,
+     * a key with an escape sequence is never found.
+     */
+    abstract int keyIndex(KeyTable keyTable);
+
+    /**
+     * Returns the decoded text of the current STRING token.
+     */
+    abstract String text();
+
+    /**
+     * Decodes the current INTEGER token, an integer that does not fit in a long is a DOUBLE token.
+     */
+    abstract long longValue();
+
+    /**
+     * Decodes the current DOUBLE token.
+     */
+    abstract double doubleValue();
+
+    /**
+     * Scans the content of an object or an array, the current token being the opening bracket,
+     * to find the matching closing bracket that becomes the current token.
+     */
+    abstract void skipNested();
+
+    /**
+     * Returns the location of the current token in the whole input.
+     */
+    abstract long location();
+
+    /**
+     * Skips the value starting with the current token without decoding it.
+     * The content of an object or an array is only scanned to find the matching closing bracket,
+     * the tokens inside are not recognized so they are not validated either.
+     */
+    final void skipValue(Kind kind) {
+      switch (kind) {
+        case NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING -> {}
+        case LEFT_CURLY, LEFT_BRACKET -> skipNested();
+        default -> throw error(kind, NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+      }
+    }
+
+    final void expect(Kind kind, Kind expectedKind) {
+      if (kind != expectedKind) {
+        throw error(kind, expectedKind);
+      }
+    }
+
+    final IllegalStateException error(Kind kind, Kind... expectedKinds) {
+      return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind + " at " + location());
+    }
+  }
+
+  /**
+   * A lexer that walks the input character by character.
+   *
+   * The characters are read from a {@link Reader} or copied from a String into a bounded buffer that is reused,
+   * only the characters of the current token are kept when the buffer is refilled.
+   * The content of a string is scanned 4 chars at a time while there is no quote, no backslash
+   * and no control character (see {@link #skipPlainChars(MemorySegment, int, int)}).
+   * A lexer can be {@link #reset(Reader, String) reset} to parse another input with the same buffer.
+   */
+  private static final class CharLexer extends Lexer {
+    private static final int BUFFER_SIZE = 8_192;
+    /**
+     * A buffer that has grown beyond this size because of a large token is not kept by {@link #reset(Reader, String)}.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The maximum number of characters read from the input.
+     */
+    private final long maxSize;
+    private Reader reader;
+    private String text;
+    private int textIndex;
+    private char[] buffer = new char[BUFFER_SIZE];
+    /**
+     * A segment on the buffer to scan the content of the strings 4 chars at a time.
+     */
+    private MemorySegment bufferSegment = MemorySegment.ofArray(buffer);
+    private int limit;
+    /**
+     * The position of the first character of the buffer in the whole input, a Reader can be larger than 2 GB.
+     */
+    private long offset;
+    private int index;
+    private int start;
+    private int end;
+    private boolean escaped;
+
+    private CharLexer(long maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    /**
+     * Starts to read a new input, either a reader or a text, the other being null.
+     * If both are null, the lexer keeps no reference on the previous input.
+     */
+    private void reset(Reader reader, String text) {
+      this.reader = reader;
+      this.text = text;
+      textIndex = 0;
+      if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+        buffer = new char[BUFFER_SIZE];
+        bufferSegment = MemorySegment.ofArray(buffer);
+      }
+      limit = 0;
+      offset = 0;
+      index = 0;
+      start = 0;
+      end = 0;
+      escaped = false;
+    }
+
+    /**
+     * Refills the buffer, keeping the characters of the current token (starting at {@link #start}).
+     * @return false if there is no more character to read.
+     */
+    private boolean fill() {
+      if (start != 0) {
+        System.arraycopy(buffer, start, buffer, 0, limit - start);
+        offset += start;
+        limit -= start;
+        index -= start;
+        start = 0;
+      } else if (limit == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length << 1);
+        bufferSegment = MemorySegment.ofArray(buffer);
+      }
+      int read;
+      if (text != null) {
+        read = Math.min(text.length() - textIndex, buffer.length - limit);
+        if (read == 0) {
+          return false;
+        }
+        text.getChars(textIndex, textIndex + read, buffer, limit);
+        textIndex += read;
+      } else {
+        try {
+          read = reader.read(buffer, limit, buffer.length - limit);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        if (read == -1) {
+          return false;
+        }
+      }
+      limit += read;
+      checkSize(offset + limit, maxSize);
+      return true;
+    }
+
+    @Override
+    boolean skipWhitespaces() {
+      for(;;) {
+        if (index == limit) {
+          start = index;
+          if (!fill()) {
+            return false;
+          }
+        }
+        var c = buffer[index];
+        if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+          return true;
+        }
+        index++;
+      }
+    }
+
+    @Override
+    Kind next() {
+      if (!skipWhitespaces()) {
+        throw new IllegalStateException("no token recognized at " + (offset + index));
+      }
+      start = index;
+      escaped = false;
+      var c = buffer[index];
+      return switch (c) {
+        case '{' -> punctuation(LEFT_CURLY);
+        case '}' -> punctuation(RIGHT_CURLY);
+        case '[' -> punctuation(LEFT_BRACKET);
+        case ']' -> punctuation(RIGHT_BRACKET);
+        case ':' -> punctuation(COLON);
+        case ',' -> punctuation(COMMA);
+        case '"' -> string();
+        case 'n' -> keyword("null", NULL);
+        case 't' -> keyword("true", TRUE);
+        case 'f' -> keyword("false", FALSE);
+        default -> {
+          if ((c < '0' || c > '9') && c != '-') {
+            throw new IllegalStateException("no token recognized at " + (offset + index) + ", unknown character '" + c + "'");
+          }
+          yield number();
+        }
+      };
+    }
+
+    private Kind punctuation(Kind kind) {
+      end = start + 1;
+      index = end;
+      return kind;
+    }
+
+    private Kind string() {
+      var location = offset + start;
+      var index = start + 1;
+      for(;;) {
+        var buffer = this.buffer;
+        var segment = bufferSegment;
+        for(index = skipPlainChars(segment, index, limit); index < limit; index = skipPlainChars(segment, index + 1, limit)) {
+          var c = buffer[index];
+          if (c == '"') {
+            start++;
+            end = index;
+            this.index = index + 1;
+            return STRING;
+          }
+          if (c == '\\') {
+            escaped = true;
+            index++;  // skip the escaped character, it can be a quote
+            continue;
+          }
+          if (c < 0x20) {
+            throw new IllegalStateException("invalid control character in string at " + (offset + index));
+          }
+        }
+        this.index = index;
+        if (!fill()) {
+          throw new IllegalStateException("unterminated string at " + location);
+        }
+        index = this.index;
+      }
+    }
+
+    private Kind keyword(String keyword, Kind kind) {
+      var length = keyword.length();
+      while (limit - start < length) {
+        index = limit;
+        if (!fill()) {
+          break;
+        }
+      }
+      for(var i = 0; i < length; i++) {
+        if (start + i == limit || buffer[start + i] != keyword.charAt(i)) {
+          throw new IllegalStateException("no token recognized at " + (offset + start) + ", expect " + keyword);
+        }
+      }
+      end = start + length;
+      index = end;
+      return kind;
+    }
+
+    /**
+     * Scans the characters that can be part of a number, then checks that they follow the grammar of a JSON number.
+     */
+    private Kind number() {
+      var index = start;
+      for(;;) {
+        var buffer = this.buffer;
+        for(; index < limit; index++) {
+          var c = buffer[index];
+          if ((c < '0' || c > '9') && c != '.' && c != 'e' && c != 'E' && c != '-' && c != '+') {
+            end = index;
+            this.index = index;
+            return numberKind();
+          }
+        }
+        this.index = index;
+        if (!fill()) {
+          end = this.index;
+          return numberKind();
+        }
+        index = this.index;
+      }
+    }
+
+    private Kind numberKind() {
+      return ToyJSONParser.numberKind(buffer, start, end, offset + start);
+    }
+
+    @Override
+    void skipNested() {
+      var location = offset + start;
+      var depth = 1;
+      var inString = false;
+      var index = this.index;
+      for(;;) {
+        var buffer = this.buffer;
+        var segment = bufferSegment;
+        for(; index < limit; index++) {
+          if (inString) {
+            index = skipPlainChars(segment, index, limit);
+            if (index == limit) {
+              break;
+            }
+            var c = buffer[index];
+            if (c == '\\') {
+              index++;  // skip the escaped character, it can be a quote
+            } else {
+              inString = c != '"';
+            }
+            continue;
+          }
+          switch (buffer[index]) {
+            case '"' -> inString = true;
+            case '{', '[' -> depth++;
+            case '}', ']' -> {
+              if (--depth == 0) {
+                start = index;
+                end = index + 1;
+                this.index = end;
+                return;
+              }
+            }
+            default -> {}
+          }
+        }
+        start = limit;  // no character to keep
+        this.index = index;
+        if (!fill()) {
+          throw new IllegalStateException("unterminated value at " + location);
+        }
+        index = this.index;
+      }
+    }
 
-    private final String regex;
+    @Override
+    long longValue() {
+      return decodeLong(buffer, start, end);
+    }
+
+    @Override
+    double doubleValue() {
+      return decodeDouble(buffer, start, end);
+    }
+
+    @Override
+    long location() {
+      return offset + start;
+    }
+
+    /**
+     * Returns the position of the start of the current token in the whole input, the input is a String.
+     */
+    private int position() {
+      return Math.toIntExact(offset + start);
+    }
 
-    Kind(String regex) {
-      this.regex = regex;
+    /**
+     * Returns the position of the end of the current token in the whole input, the input is a String.
+     */
+    private int endPosition() {
+      return Math.toIntExact(offset + end);
     }
 
-    private static final Kind[] VALUES = values();
+    @Override
+    int keyIndex(KeyTable keyTable) {
+      return escaped? -1: keyTable.findIndex(buffer, start, end);
+    }
+
+    @Override
+    String text() {
+      if (escaped) {
+        return unescape(CharBuffer.wrap(buffer), start, end);
+      }
+      return new String(buffer, start, end - start);
+    }
   }
 
-  private record Token(Kind kind, String text, int location) {
-    private boolean is(Kind kind) {
-      return this.kind == kind;
+  /**
+   * The powers of ten that are exactly represented as a double.
+   */
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private static int digits(char[] buffer, int index, int end) {
+    var i = index;
+    while (i < end && buffer[i] >= '0' && buffer[i] <= '9') {
+      i++;
     }
+    return i - index;
+  }
 
-    private String expect(Kind kind) {
-      if (this.kind != kind) {
-        throw error(kind);
+  /**
+   * Checks that the characters of a number follow the grammar of a JSON number.
+   * A number is a {@link Kind#DOUBLE} if it has a fraction or an exponent, or if it is an integer
+   * that does not fit in a long, so the value of an {@link Kind#INTEGER} can always be decoded as a long.
+   *
+   * @param location the location of the number in the whole input, for the error message.
+   * @return {@link Kind#INTEGER} or {@link Kind#DOUBLE}.
+   * @throws IllegalStateException if the number is not valid.
+   */
+  private static Kind numberKind(char[] buffer, int start, int end, long location) {
+    var index = start;
+    var negative = buffer[index] == '-';
+    if (negative) {
+      index++;
+    }
+    var digits = digits(buffer, index, end);
+    if (digits == 0 || (digits > 1 && buffer[index] == '0')) {
+      throw invalidNumber(buffer, start, end, location);
+    }
+    var kind = fitsInLong(buffer, index, digits, negative)? INTEGER: DOUBLE;
+    index += digits;
+    if (index < end && buffer[index] == '.') {
+      kind = DOUBLE;
+      digits = digits(buffer, ++index, end);
+      if (digits == 0) {
+        throw invalidNumber(buffer, start, end, location);
       }
-      return text;
+      index += digits;
     }
+    if (index < end && (buffer[index] == 'e' || buffer[index] == 'E')) {
+      kind = DOUBLE;
+      index++;
+      if (index < end && (buffer[index] == '+' || buffer[index] == '-')) {
+        index++;
+      }
+      digits = digits(buffer, index, end);
+      if (digits == 0) {
+        throw invalidNumber(buffer, start, end, location);
+      }
+      index += digits;
+    }
+    if (index != end) {
+      throw invalidNumber(buffer, start, end, location);
+    }
+    return kind;
+  }
 
-    public IllegalStateException error(Kind... expectedKinds) {
-      return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind + " at " + location);
+  /**
+   * The digits of {@link Long#MAX_VALUE}.
+   */
+  private static final String MAX_LONG_DIGITS = Long.toString(Long.MAX_VALUE);
+
+  /**
+   * Returns true if the digits of an integer without leading zero are the digits of a long,
+   * the digits of a negative long can be one more than the digits of {@link Long#MAX_VALUE}.
+   */
+  private static boolean fitsInLong(char[] buffer, int index, int digits, boolean negative) {
+    var maxDigits = MAX_LONG_DIGITS.length();
+    if (digits != maxDigits) {
+      return digits < maxDigits;
+    }
+    for(var i = 0; i < maxDigits; i++) {
+      var max = MAX_LONG_DIGITS.charAt(i) + (negative && i == maxDigits - 1? 1: 0);
+      var c = buffer[index + i];
+      if (c != max) {
+        return c < max;
+      }
+    }
+    return true;
+  }
+
+  private static IllegalStateException invalidNumber(char[] buffer, int start, int end, long location) {
+    return new IllegalStateException("invalid number " + new String(buffer, start, end - start) + " at " + location);
+  }
+
+  /**
+   * Decodes a valid INTEGER token of a text like {@link #decodeLong(char[], int, int)}
+   * but reads the characters of the String directly, by example the bounds of the token come from {@link #index(String)}.
+   */
+  static long decodeLong(String text, int start, int end) {
+    var index = start;
+    var negative = text.charAt(index) == '-';
+    if (negative) {
+      index++;
+    }
+    var value = 0L;  // accumulated as a negative value, so Long.MIN_VALUE can be represented
+    for(; index < end; index++) {
+      value = value * 10 - (text.charAt(index) - '0');
+    }
+    return negative? value: -value;
+  }
+
+  /**
+   * Decodes a valid INTEGER or DOUBLE token of a text like {@link #decodeDouble(char[], int, int)}
+   * but reads the characters of the String directly, by example the bounds of the token come from {@link #index(String)}.
+   */
+  static double decodeDouble(String text, int start, int end) {
+    var index = start;
+    var negative = text.charAt(index) == '-';
+    if (negative) {
+      index++;
+    }
+    var significand = 0L;
+    var significantDigits = 0;
+    var exponent = 0;
+    var fraction = false;
+    for(; index < end && text.charAt(index) != 'e' && text.charAt(index) != 'E'; index++) {
+      var c = text.charAt(index);
+      if (c == '.') {
+        fraction = true;
+        continue;
+      }
+      if (fraction) {
+        exponent--;
+      }
+      if (significand == 0 && c == '0') {
+        continue;  // a leading zero is not significant
+      }
+      significand = significand * 10 + (c - '0');
+      if (++significantDigits > 15) {
+        return parseDouble(text.substring(start, end));
+      }
+    }
+    if (index < end) {  // exponent part
+      index++;
+      var negativeExponent = text.charAt(index) == '-';
+      if (negativeExponent || text.charAt(index) == '+') {
+        index++;
+      }
+      var exponentValue = 0;
+      for(; index < end; index++) {
+        exponentValue = exponentValue * 10 + (text.charAt(index) - '0');
+        if (exponentValue > 1_000) {
+          return parseDouble(text.substring(start, end));
+        }
+      }
+      exponent += negativeExponent? -exponentValue: exponentValue;
+    }
+    if (significand == 0) {
+      return negative? -0.0: 0.0;
+    }
+    if (exponent < -22 || exponent > 22) {
+      return parseDouble(text.substring(start, end));
+    }
+    var value = exponent < 0? significand / POWERS_OF_TEN[-exponent]: significand * POWERS_OF_TEN[exponent];
+    return negative? -value: value;
+  }
+
+  /**
+   * Decodes the characters of a valid INTEGER token, the integer fits in a long.
+   * @see #numberKind(char[], int, int, long)
+   */
+  private static long decodeLong(char[] buffer, int start, int end) {
+    var index = start;
+    var negative = buffer[index] == '-';
+    if (negative) {
+      index++;
+    }
+    var value = 0L;  // accumulated as a negative value, so Long.MIN_VALUE can be represented
+    for(; index < end; index++) {
+      value = value * 10 - (buffer[index] - '0');
+    }
+    return negative? value: -value;
+  }
+
+  /**
+   * Decodes the characters of a valid DOUBLE token.
+   *
+   * If the significand has at most 15 digits and the decimal exponent is in [-22, 22],
+   * the significand and the power of ten are exactly represented as doubles, so one multiplication
+   * or one division gives the correctly rounded result (Clinger's fast path).
+   * Otherwise, the text of the number is decoded by {@link Double#parseDouble(String)}.
+   */
+  private static double decodeDouble(char[] buffer, int start, int end) {
+    var index = start;
+    var negative = buffer[index] == '-';
+    if (negative) {
+      index++;
+    }
+    var significand = 0L;
+    var significantDigits = 0;
+    var exponent = 0;
+    var fraction = false;
+    for(; index < end && buffer[index] != 'e' && buffer[index] != 'E'; index++) {
+      var c = buffer[index];
+      if (c == '.') {
+        fraction = true;
+        continue;
+      }
+      if (fraction) {
+        exponent--;
+      }
+      if (significand == 0 && c == '0') {
+        continue;  // a leading zero is not significant
+      }
+      significand = significand * 10 + (c - '0');
+      if (++significantDigits > 15) {
+        return parseDouble(new String(buffer, start, end - start));
+      }
+    }
+    if (index < end) {  // exponent part
+      index++;
+      var negativeExponent = buffer[index] == '-';
+      if (negativeExponent || buffer[index] == '+') {
+        index++;
+      }
+      var exponentValue = 0;
+      for(; index < end; index++) {
+        exponentValue = exponentValue * 10 + (buffer[index] - '0');
+        if (exponentValue > 1_000) {
+          return parseDouble(new String(buffer, start, end - start));
+        }
+      }
+      exponent += negativeExponent? -exponentValue: exponentValue;
+    }
+    if (significand == 0) {
+      return negative? -0.0: 0.0;
+    }
+    if (exponent < -22 || exponent > 22) {
+      return parseDouble(new String(buffer, start, end - start));
+    }
+    var value = exponent < 0? significand / POWERS_OF_TEN[-exponent]: significand * POWERS_OF_TEN[exponent];
+    return negative? -value: value;
+  }
+
+  /**
+   * A lexer on a text encoded in UTF-8 stored in a memory segment, the bytes of an array, of a byte buffer
+   * or of a mapped file. The whole input is available so there is no buffer to fill.
+   *
+   * The structural characters, the keywords and the numbers are ASCII so they are recognized on the bytes,
+   * a string is only scanned to find its closing quote, 8 bytes at a time while there is no quote,
+   * no backslash and no control character. The content of a string is decoded and its UTF-8 encoding
+   * is validated only when its text is asked, so the strings of the skipped values are never decoded
+   * and a known key is found in the {@link KeyTable} without being decoded.
+   */
+  private static final class Utf8Lexer extends Lexer {
+    private static final int CHARS_SIZE = 64;
+    /**
+     * A character buffer that has grown beyond this size because of a large string is not kept by {@link #reset(MemorySegment)}.
+     */
+    private static final int MAX_RETAINED_CHARS_SIZE = 1 << 16;
+
+    private MemorySegment segment;
+    /**
+     * The offset of the segment in the whole input, the segment is a chunk of the input for a {@link PushParser}.
+     */
+    private long offset;
+    private long limit;
+    private long index;
+    private long start;
+    private long end;
+    private boolean escaped;
+    /**
+     * The decoded characters of the current string or the characters of the current number.
+     */
+    private char[] chars = new char[CHARS_SIZE];
+    private int numberLength;
+    /**
+     * The number of bytes of the content of an incomplete string already scanned by {@link #hasNext()}.
+     */
+    private long scanned;
+
+    private Utf8Lexer() {
+    }
+
+    /**
+     * Starts to read a new input, if the segment is null, the lexer keeps no reference on the previous input.
+     */
+    private void reset(MemorySegment segment) {
+      reset(segment, 0);
+    }
+
+    /**
+     * Starts to read a segment that starts at the offset of the whole input.
+     */
+    private void reset(MemorySegment segment, long offset) {
+      this.segment = segment;
+      this.offset = offset;
+      limit = segment == null? 0: segment.byteSize();
+      if (chars.length > MAX_RETAINED_CHARS_SIZE) {
+        chars = new char[CHARS_SIZE];
+      }
+      index = 0;
+      start = 0;
+      end = 0;
+      escaped = false;
+    }
+
+    private byte at(long index) {
+      return segment.get(ValueLayout.JAVA_BYTE, index);
+    }
+
+    private static final long ONES = 0x0101_0101_0101_0101L;
+    private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+
+    /**
+     * Returns true if none of the 8 bytes of the word is a quote, a backslash or a control character,
+     * using the SWAR (SIMD within a register) test of a byte less than n: {@code (word - n * ONES) & ~word & HIGH_BITS},
+     * a quote or a backslash being a zero byte once xored. The bytes of a multi-byte UTF-8 sequence have their high bit set
+     * so they are never matched. The order of the bytes does not matter, so the word is read in the native order.
+     */
+    private static boolean isPlain(long word) {
+      var quote = word ^ (ONES * '"');
+      var backslash = word ^ (ONES * '\\');
+      return ((((quote - ONES) & ~quote) | ((backslash - ONES) & ~backslash) | ((word - ONES * 0x20) & ~word)) & HIGH_BITS) == 0;
+    }
+
+    /**
+     * Skips the words of 8 bytes that contain no quote, no backslash and no control character.
+     * @return the index of the first byte of the first word that contains one of them, or of the last incomplete word.
+     */
+    private long skipPlain(long index) {
+      while (index + Long.BYTES <= limit && isPlain(segment.get(ValueLayout.JAVA_LONG_UNALIGNED, index))) {
+        index += Long.BYTES;
+      }
+      return index;
+    }
+
+    /**
+     * Skips the whitespaces and returns true if the next token is complete, so {@link #next()} can be called.
+     * Used by the {@link PushParser} that reads a chunk of the input at a time, a number or a keyword is only
+     * complete if a byte follows it in the chunk, because the next chunk may continue it.
+     * The bytes of an incomplete string already scanned are not scanned again by the next call.
+     */
+    private boolean hasNext() {
+      if (!skipWhitespaces()) {
+        return false;
+      }
+      return switch (at(index)) {
+        case '{', '}', '[', ']', ':', ',' -> true;
+        case '"' -> {
+          for(var index = skipPlain(this.index + 1 + scanned); index < limit; index = skipPlain(index + 1)) {
+            var b = at(index);
+            if (b == '"') {
+              scanned = 0;
+              yield true;
+            }
+            if (b == '\\') {
+              if (index + 1 == limit) {  // the escaped character is in the next chunk
+                scanned = index - this.index - 1;
+                yield false;
+              }
+              index++;
+            }
+          }
+          scanned = limit - index - 1;
+          yield false;
+        }
+        default -> {
+          for(var index = this.index; index < limit; index++) {
+            if (!isTokenPart(at(index))) {
+              yield true;
+            }
+          }
+          yield false;
+        }
+      };
+    }
+
+    /**
+     * Returns true if the byte can be part of a number or of a keyword.
+     */
+    private static boolean isTokenPart(byte b) {
+      return (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '.' || b == 'E' || b == '-' || b == '+';
+    }
+
+    @Override
+    boolean skipWhitespaces() {
+      for(; index < limit; index++) {
+        var b = at(index);
+        if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    Kind next() {
+      if (!skipWhitespaces()) {
+        throw new IllegalStateException("no token recognized at " + (offset + index));
+      }
+      start = index;
+      escaped = false;
+      var b = at(index);
+      return switch (b) {
+        case '{' -> punctuation(LEFT_CURLY);
+        case '}' -> punctuation(RIGHT_CURLY);
+        case '[' -> punctuation(LEFT_BRACKET);
+        case ']' -> punctuation(RIGHT_BRACKET);
+        case ':' -> punctuation(COLON);
+        case ',' -> punctuation(COMMA);
+        case '"' -> string();
+        case 'n' -> keyword("null", NULL);
+        case 't' -> keyword("true", TRUE);
+        case 'f' -> keyword("false", FALSE);
+        default -> {
+          if ((b < '0' || b > '9') && b != '-') {
+            throw new IllegalStateException("no token recognized at " + (offset + index) + ", unknown byte 0x" + Integer.toHexString(b & 0xFF));
+          }
+          yield number();
+        }
+      };
+    }
+
+    private Kind punctuation(Kind kind) {
+      end = start + 1;
+      index = end;
+      return kind;
+    }
+
+    private Kind string() {
+      for(var index = skipPlain(start + 1); index < limit; index = skipPlain(index + 1)) {
+        var b = at(index);
+        if (b == '"') {
+          start++;
+          end = index;
+          this.index = index + 1;
+          return STRING;
+        }
+        if (b == '\\') {
+          escaped = true;
+          index++;  // skip the escaped character, it can be a quote
+          continue;
+        }
+        if (b >= 0 && b < 0x20) {
+          throw new IllegalStateException("invalid control character in string at " + (offset + index));
+        }
+      }
+      throw new IllegalStateException("unterminated string at " + (offset + start));
+    }
+
+    private Kind keyword(String keyword, Kind kind) {
+      var length = keyword.length();
+      for(var i = 0; i < length; i++) {
+        if (start + i == limit || at(start + i) != keyword.charAt(i)) {
+          throw new IllegalStateException("no token recognized at " + (offset + start) + ", expect " + keyword);
+        }
+      }
+      end = start + length;
+      index = end;
+      return kind;
+    }
+
+    /**
+     * Copies the bytes that can be part of a number, then checks that they follow the grammar of a JSON number.
+     */
+    private Kind number() {
+      var index = start;
+      for(; index < limit; index++) {
+        var b = at(index);
+        if ((b < '0' || b > '9') && b != '.' && b != 'e' && b != 'E' && b != '-' && b != '+') {
+          break;
+        }
+      }
+      end = index;
+      this.index = index;
+      var length = Math.toIntExact(end - start);
+      if (length > chars.length) {
+        chars = new char[length];
+      }
+      for(var i = 0; i < length; i++) {
+        chars[i] = (char) at(start + i);
+      }
+      numberLength = length;
+      return numberKind(chars, 0, length, offset + start);
+    }
+
+    @Override
+    void skipNested() {
+      var depth = 1;
+      var inString = false;
+      for(var index = this.index; index < limit; index++) {
+        if (inString) {
+          index = skipPlain(index);
+          if (index == limit) {
+            break;
+          }
+          var b = at(index);
+          if (b == '\\') {
+            index++;  // skip the escaped character, it can be a quote
+          } else {
+            inString = b != '"';
+          }
+          continue;
+        }
+        switch (at(index)) {
+          case '"' -> inString = true;
+          case '{', '[' -> depth++;
+          case '}', ']' -> {
+            if (--depth == 0) {
+              start = index;
+              end = index + 1;
+              this.index = end;
+              return;
+            }
+          }
+          default -> {}
+        }
+      }
+      throw new IllegalStateException("unterminated value at " + (offset + start));
+    }
+
+    @Override
+    long longValue() {
+      return decodeLong(chars, 0, numberLength);
+    }
+
+    @Override
+    double doubleValue() {
+      return decodeDouble(chars, 0, numberLength);
+    }
+
+    @Override
+    long location() {
+      return offset + start;
+    }
+
+    @Override
+    int keyIndex(KeyTable keyTable) {
+      return escaped? -1: keyTable.findIndex(segment, start, end);
+    }
+
+    private IllegalStateException invalidUtf8(long index) {
+      return new IllegalStateException("invalid UTF-8 sequence in string at " + (offset + index));
+    }
+
+    /**
+     * Returns the 6 bits of a continuation byte, the byte must be in [min, max].
+     */
+    private int continuation(long index, int min, int max) {
+      if (index >= end) {
+        throw invalidUtf8(index);
+      }
+      var b = at(index) & 0xFF;
+      if (b < min || b > max) {
+        throw invalidUtf8(index);
+      }
+      return b & 0x3F;
+    }
+
+    /**
+     * Decodes the escape sequences and the UTF-8 sequences of the current string in one pass.
+     * A string has at most one character per byte, so the characters fit in a buffer of the size in bytes.
+     * The overlong encodings, the encoded surrogates and the code points above U+10FFFF are rejected.
+     */
+    @Override
+    String text() {
+      var length = end - start;
+      if (length > chars.length) {
+        if (length > Integer.MAX_VALUE - 8) {
+          throw new IllegalStateException("string too large at " + (offset + start));
+        }
+        chars = new char[(int) length];
+      }
+      var chars = this.chars;
+      var count = 0;
+      for(var index = start; index < end;) {
+        var b = at(index++);
+        if (b >= 0) {
+          if (b != '\\') {
+            chars[count++] = (char) b;
+            continue;
+          }
+          var c = at(index++);  // there is always a character after a backslash
+          switch (c) {
+            case '"' -> chars[count++] = '"';
+            case '\\' -> chars[count++] = '\\';
+            case '/' -> chars[count++] = '/';
+            case 'b' -> chars[count++] = '\b';
+            case 'f' -> chars[count++] = '\f';
+            case 'n' -> chars[count++] = '\n';
+            case 'r' -> chars[count++] = '\r';
+            case 't' -> chars[count++] = '\t';
+            case 'u' -> {  // a surrogate pair is two escape sequences, so it is decoded as two chars
+              if (index + 4 > end) {
+                throw new IllegalStateException("invalid unicode escape sequence in string at " + (offset + index));
+              }
+              var codeUnit = 0;
+              for(var i = 0; i < 4; i++) {
+                var digit = Character.digit(at(index++), 16);
+                if (digit == -1) {
+                  throw new IllegalStateException("invalid unicode escape sequence in string at " + (offset + index));
+                }
+                codeUnit = codeUnit << 4 | digit;
+              }
+              chars[count++] = (char) codeUnit;
+            }
+            default -> throw new IllegalStateException("invalid escape sequence \\" + (char) (c & 0xFF) + " in string at " + (offset + index));
+          }
+          continue;
+        }
+        var lead = b & 0xFF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+          chars[count++] = (char) ((lead & 0x1F) << 6 | continuation(index, 0x80, 0xBF));
+          index++;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+          var min = lead == 0xE0? 0xA0: 0x80;  // not overlong
+          var max = lead == 0xED? 0x9F: 0xBF;  // not a surrogate
+          chars[count++] = (char) ((lead & 0x0F) << 12 | continuation(index, min, max) << 6 | continuation(index + 1, 0x80, 0xBF));
+          index += 2;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+          var min = lead == 0xF0? 0x90: 0x80;  // not overlong
+          var max = lead == 0xF4? 0x8F: 0xBF;  // not above U+10FFFF
+          var codePoint = (lead & 0x07) << 18 | continuation(index, min, max) << 12
+              | continuation(index + 1, 0x80, 0xBF) << 6 | continuation(index + 2, 0x80, 0xBF);
+          chars[count++] = Character.highSurrogate(codePoint);
+          chars[count++] = Character.lowSurrogate(codePoint);
+          index += 3;
+        } else {
+          throw invalidUtf8(index - 1);
+        }
+      }
+      return new String(chars, 0, count);
+    }
+  }
+
+  private static final long CHAR_ONES = 0x0001_0001_0001_0001L;
+  private static final long CHAR_HIGH_BITS = 0x8000_8000_8000_8000L;
+
+  /**
+   * Returns true if none of the 4 chars of the word is a quote, a backslash or a control character,
+   * the same SWAR test as {@link Utf8Lexer#isPlain(long)} on lanes of 16 bits instead of 8,
+   * a char above 0x7FFF has its high bit set so it is never matched.
+   */
+  private static boolean isPlainChars(long word) {
+    var quote = word ^ (CHAR_ONES * '"');
+    var backslash = word ^ (CHAR_ONES * '\\');
+    return ((((quote - CHAR_ONES) & ~quote) | ((backslash - CHAR_ONES) & ~backslash) | ((word - CHAR_ONES * 0x20) & ~word)) & CHAR_HIGH_BITS) == 0;
+  }
+
+  /**
+   * Skips the words of 4 chars that contain no quote, no backslash and no control character.
+   * The chars are read 4 at a time through a segment on a char array, in the native order
+   * because the order of the chars of a word does not matter.
+   *
+   * @param chars a segment on a char array.
+   * @param index the index of the first char to scan.
+   * @param limit the index after the last char to scan.
+   * @return the index of the first char of the first word that contains one of them, or of the last incomplete word.
+   */
+  static int skipPlainChars(MemorySegment chars, int index, int limit) {
+    while (index + 4 <= limit && isPlainChars(chars.get(ValueLayout.JAVA_LONG_UNALIGNED, (long) index << 1))) {
+      index += 4;
+    }
+    return index;
+  }
+
+  /**
+   * Decodes the escape sequences of the content of a JSON string (without the quotes).
+   *
+   * @param text the text containing the string.
+   * @param start the index of the first character of the content.
+   * @param end the index after the last character of the content.
+   * @return the decoded string.
+   * @throws IllegalStateException if an escape sequence is not valid.
+   */
+  static String unescape(CharSequence text, int start, int end) {
+    var builder = new StringBuilder(end - start);
+    var from = start;
+    for(var i = start; i < end; i++) {
+      if (text.charAt(i) != '\\') {
+        continue;
+      }
+      builder.append(text, from, i);
+      if (++i == end) {
+        throw new IllegalStateException("invalid escape sequence at the end of " + text.subSequence(start, end));
+      }
+      switch (text.charAt(i)) {
+        case '"' -> builder.append('"');
+        case '\\' -> builder.append('\\');
+        case '/' -> builder.append('/');
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'n' -> builder.append('\n');
+        case 'r' -> builder.append('\r');
+        case 't' -> builder.append('\t');
+        case 'u' -> {  // a surrogate pair is two escape sequences, so it is decoded as two chars
+          if (i + 4 >= end) {
+            throw new IllegalStateException("invalid unicode escape sequence in " + text.subSequence(start, end));
+          }
+          var codeUnit = 0;
+          for(var j = i + 1; j <= i + 4; j++) {
+            var digit = Character.digit(text.charAt(j), 16);
+            if (digit == -1) {
+              throw new IllegalStateException("invalid unicode escape sequence in " + text.subSequence(start, end));
+            }
+            codeUnit = codeUnit << 4 | digit;
+          }
+          builder.append((char) codeUnit);
+          i += 4;
+        }
+        default -> throw new IllegalStateException("invalid escape sequence \\" + text.charAt(i) + " in " + text.subSequence(start, end));
+      }
+      from = i + 1;
+    }
+    return builder.append(text, from, end).toString();
+  }
+
+  /**
+   * Methods called when a JSON text is parsed.
+   * @see #parse(String, JSONVisitor)
+   */
+  public interface JSONVisitor {
+    /**
+     * Called during the parsing or the content of an object or an array.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    void value(String key, Object value);
+
+    /**
+     * Called during the parsing or the content of an object or an array when the value is an integer.
+     * By default, box the value and calls {@link #value(String, Object)}.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void value(String key, int value) {
+      value(key, (Object) value);
+    }
+
+    /**
+     * Called during the parsing or the content of an object or an array when the value is an integer
+     * too big to be an int.
+     * By default, box the value and calls {@link #value(String, Object)}.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void value(String key, long value) {
+      value(key, (Object) value);
+    }
+
+    /**
+     * Called during the parsing or the content of an object or an array when the value is a double.
+     * By default, box the value and calls {@link #value(String, Object)}.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void value(String key, double value) {
+      value(key, (Object) value);
+    }
+
+    /**
+     * Called during the parsing or the content of an object or an array when the value is a boolean.
+     * By default, box the value and calls {@link #value(String, Object)}.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void value(String key, boolean value) {
+      value(key, (Object) value);
+    }
+
+    /**
+     * Called during the parsing instead of {@link #value(String, Object)} with the index of the key
+     * in the {@link #keyTable() key table} of the current object, so the visitor can find what is associated
+     * with the key without a lookup on the key.
+     * By default, calls {@link #value(String, Object)}.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param keyIndex the index of the key in the key table, -1 if there is no key, no key table
+     *                 or if the key is not found in the key table.
+     * @param value the value
+     */
+    default void value(String key, int keyIndex, Object value) {
+      value(key, value);
+    }
+
+    /**
+     * Called instead of {@link #value(String, int)} with the index of the key,
+     * like {@link #value(String, int, Object)}.
+     */
+    default void value(String key, int keyIndex, int value) {
+      value(key, value);
+    }
+
+    /**
+     * Called instead of {@link #value(String, long)} with the index of the key,
+     * like {@link #value(String, int, Object)}.
+     */
+    default void value(String key, int keyIndex, long value) {
+      value(key, value);
     }
-  }
 
-  private record Lexer(Matcher matcher) {
-    private Token next() {
-      for(;;) {
-        if (!matcher.find()) {
-          throw new IllegalStateException("no token recognized");
-        }
-        var index = rangeClosed(1, matcher.groupCount()).filter(i -> matcher.group(i) != null).findFirst().orElseThrow();
-        var kind = Kind.VALUES[index - 1];
-        if (kind != Kind.BLANK) {
-          return new Token(kind, matcher.group(index), matcher.start(index));
-        }
-      }
+    /**
+     * Called instead of {@link #value(String, double)} with the index of the key,
+     * like {@link #value(String, int, Object)}.
+     */
+    default void value(String key, int keyIndex, double value) {
+      value(key, value);
     }
-  }
 
-  /**
-   * Methods called when a JSON text is parsed.
-   * @see #parse(String, JSONVisitor)
-   */
-  public interface JSONVisitor {
     /**
-     * Called during the parsing or the content of an object or an array.
-     *
-     * @param key the key of the value if inside an object, {@code null} otherwise.
-     * @param value the value
+     * Called instead of {@link #value(String, boolean)} with the index of the key,
+     * like {@link #value(String, int, Object)}.
      */
-    void value(String key, Object value);
+    default void value(String key, int keyIndex, boolean value) {
+      value(key, value);
+    }
 
     /**
      * Called during the parsing at the beginning of an object.
@@ -123,9 +1279,77 @@ class ToyJSONParser {
      * @see #startArray(String)
      */
     void endArray(String key);
+
+    /**
+     * Called instead of {@link #startObject(String)} with the index of the key in the key table
+     * of the enclosing object, like {@link #value(String, int, Object)}.
+     */
+    default void startObject(String key, int keyIndex) {
+      startObject(key);
+    }
+
+    /**
+     * Called instead of {@link #endObject(String)} with the index of the key in the key table
+     * of the enclosing object, like {@link #value(String, int, Object)}.
+     */
+    default void endObject(String key, int keyIndex) {
+      endObject(key);
+    }
+
+    /**
+     * Called instead of {@link #startArray(String)} with the index of the key in the key table
+     * of the enclosing object, like {@link #value(String, int, Object)}.
+     */
+    default void startArray(String key, int keyIndex) {
+      startArray(key);
+    }
+
+    /**
+     * Called instead of {@link #endArray(String)} with the index of the key in the key table
+     * of the enclosing object, like {@link #value(String, int, Object)}.
+     */
+    default void endArray(String key, int keyIndex) {
+      endArray(key);
+    }
+
+    /**
+     * Called during the parsing of an object before the value of a key is parsed.
+     * If the visitor does not accept the key, the value is skipped by the parser
+     * without being decoded and no method of the visitor is called for it.
+     * By default, all the keys are accepted.
+     *
+     * @param key the key of the value.
+     * @return true if the value should be parsed, false if it should be skipped.
+     */
+    default boolean accept(String key) {
+      return true;
+    }
+
+    /**
+     * Called instead of {@link #accept(String)} with the index of the key in the key table
+     * of the current object, like {@link #value(String, int, Object)}.
+     */
+    default boolean accept(String key, int keyIndex) {
+      return accept(key);
+    }
+
+    /**
+     * Called by the parser after {@link #startObject(String)} to get the keys expected in the object.
+     * The parser finds the keys of the table directly in its buffer, uses the String of the table
+     * instead of allocating a new one and sends the index of the key to the visitor.
+     * By default, there is no table.
+     *
+     * @return the table of the keys expected in the current object or null.
+     */
+    default KeyTable keyTable() {
+      return null;
+    }
   }
 
-  private static final Pattern PATTERN = compile(Arrays.stream(Kind.VALUES).map(k -> k.regex).collect(joining("|")));
+  /**
+   * The sessions used by the static parse methods, with the default limits.
+   */
+  private static final SessionPool<Session> SESSION_POOL = new SessionPool<>(Session::new);
 
   /**
    * Parse a JSON text and calls the visitor methods when an array, an object or a value is parsed.
@@ -134,85 +1358,704 @@ class ToyJSONParser {
    * @param visitor the visitor to call when parsing the JSON text
    */
   public static void parse(String input, JSONVisitor visitor) {
-    var lexer = new Lexer(PATTERN.matcher(input));
+    var session = SESSION_POOL.acquire();
     try {
-      parse(lexer, visitor);
-    } catch(IllegalStateException e) {
-      throw new IllegalStateException(e.getMessage() + "\n while parsing " + input, e);
+      session.parse(input, visitor);
+    } finally {
+      SESSION_POOL.release(session);
+    }
+  }
+
+  /**
+   * Parse a JSON text read incrementally from a reader and calls the visitor methods
+   * when an array, an object or a value is parsed.
+   * The reader is not closed by this method.
+   *
+   * @param reader a reader of a JSON text
+   * @param visitor the visitor to call when parsing the JSON text
+   * @throws UncheckedIOException if an I/O error occurs
+   */
+  public static void parse(Reader reader, JSONVisitor visitor) {
+    var session = SESSION_POOL.acquire();
+    try {
+      session.parse(reader, visitor);
+    } finally {
+      SESSION_POOL.release(session);
+    }
+  }
+
+  /**
+   * Parse a JSON text encoded in UTF-8 and calls the visitor methods when an array, an object or a value is parsed.
+   * The bytes are not decoded to a String first, only the strings sent to the visitor are decoded,
+   * so the strings of the values skipped by {@link JSONVisitor#accept(String)} are never decoded.
+   *
+   * @param input the bytes of a JSON text encoded in UTF-8, by example
+   *              {@link MemorySegment#ofArray(byte[])} or {@link MemorySegment#ofBuffer(java.nio.Buffer)}.
+   * @param visitor the visitor to call when parsing the JSON text
+   * @throws IllegalStateException if the text is not valid, including an invalid UTF-8 sequence in a decoded string
+   */
+  public static void parse(MemorySegment input, JSONVisitor visitor) {
+    var session = SESSION_POOL.acquire();
+    try {
+      session.parse(input, visitor);
+    } finally {
+      SESSION_POOL.release(session);
     }
   }
 
-  private static void parse(Lexer lexer, JSONVisitor visitor) {
-    var token = lexer.next();
-    switch(token.kind) {
-      case LEFT_CURLY -> {
-        visitor.startObject(null);
-        parseObject(null, lexer, visitor);
+  /**
+   * The default maximum nesting depth of the objects and the arrays of a JSON text.
+   */
+  static final int DEFAULT_MAX_DEPTH = 1_000;
+
+  /**
+   * A reusable parsing state, the lexer and its buffer and the stack of the parser are reused
+   * by the successive parsings instead of being allocated for each one.
+   * A session is not thread safe, it can only be used by one parsing at a time.
+   *
+   * A session rejects a text deeper than its maximum depth or larger than its maximum size
+   * (in characters or in bytes depending on the input), a text larger than the maximum size
+   * is rejected before being parsed if its size is known.
+   */
+  static final class Session {
+    private final long maxSize;
+    private final Parser parser;
+    private CharLexer charLexer;
+    private Utf8Lexer utf8Lexer;
+
+    Session() {
+      this(DEFAULT_MAX_DEPTH, Long.MAX_VALUE);
+    }
+
+    Session(int maxDepth, long maxSize) {
+      this.maxSize = maxSize;
+      parser = new Parser(maxDepth, false);
+    }
+
+    private CharLexer charLexer() {
+      if (charLexer == null) {
+        charLexer = new CharLexer(maxSize);
       }
-      case LEFT_BRACKET -> {
-        visitor.startArray(null);
-        parseArray(null, lexer, visitor);
+      return charLexer;
+    }
+
+    private Utf8Lexer utf8Lexer() {
+      if (utf8Lexer == null) {
+        utf8Lexer = new Utf8Lexer();
+      }
+      return utf8Lexer;
+    }
+
+    /**
+     * Parse a JSON text like {@link ToyJSONParser#parse(String, JSONVisitor)}.
+     */
+    void parse(String input, JSONVisitor visitor) {
+      checkSize(input.length(), maxSize);
+      var lexer = charLexer();
+      lexer.reset(null, input);
+      try {
+        parser.parse(lexer, visitor);
+      } catch(IllegalStateException e) {
+        throw new IllegalStateException(e.getMessage() + "\n while parsing " + input, e);
+      } finally {
+        lexer.reset(null, null);
       }
-      default -> throw token.error(LEFT_CURLY, LEFT_BRACKET);
     }
-  }
 
-  private static void parseValue(String currentKey, Token token, Lexer lexer, JSONVisitor visitor) {
-    switch (token.kind) {
-      case NULL -> visitor.value(currentKey, null);
-      case FALSE -> visitor.value(currentKey, false);
-      case TRUE -> visitor.value(currentKey, true);
-      case INTEGER -> visitor.value(currentKey, parseInt(token.text));
-      case DOUBLE -> visitor.value(currentKey, parseDouble(token.text));
-      case STRING -> visitor.value(currentKey, token.text);
-      case LEFT_CURLY -> {
-        visitor.startObject(currentKey);
-        parseObject(currentKey, lexer, visitor);
+    /**
+     * Parse a JSON text like {@link ToyJSONParser#parse(Reader, JSONVisitor)}.
+     */
+    void parse(Reader reader, JSONVisitor visitor) {
+      var lexer = charLexer();
+      lexer.reset(reader, null);
+      try {
+        parser.parse(lexer, visitor);
+      } finally {
+        lexer.reset(null, null);
       }
-      case LEFT_BRACKET -> {
-        visitor.startArray(currentKey);
-        parseArray(currentKey, lexer, visitor);
+    }
+
+    /**
+     * Parse a JSON text encoded in UTF-8 like {@link ToyJSONParser#parse(MemorySegment, JSONVisitor)}.
+     */
+    void parse(MemorySegment input, JSONVisitor visitor) {
+      checkSize(input.byteSize(), maxSize);
+      var lexer = utf8Lexer();
+      lexer.reset(input);
+      try {
+        parser.parse(lexer, visitor);
+      } finally {
+        lexer.reset(null);
       }
-      default -> throw token.error(NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
     }
   }
 
-  private static void parseObject(String currentKey, Lexer lexer, JSONVisitor visitor) {
-    var token = lexer.next();
-    if (token.is(RIGHT_CURLY)) {
-      visitor.endObject(currentKey);
-      return;
+  private static void checkSize(long size, long maxSize) {
+    if (size > maxSize) {
+      throw new IllegalStateException("text too large, " + size + " > " + maxSize);
     }
-    for(;;) {
-      var key = token.expect(STRING);
-      lexer.next().expect(COLON);
-      token = lexer.next();
-      parseValue(key, token, lexer, visitor);
-      token = lexer.next();
-      if (token.is(RIGHT_CURLY)) {
-        visitor.endObject(currentKey);
+  }
+
+  /**
+   * A parser implemented as a state machine that receives the tokens one by one,
+   * the objects and the arrays being parsed are on an explicit stack and not on the Java stack,
+   * so a deeply nested text does not consume stack frames, and the nesting is limited by a maximum depth
+   * that is checked before a value is pushed.
+   *
+   * The parser is driven by {@link #parse(Lexer, JSONVisitor)} when the whole input is available
+   * or by a {@link PushParser} that sends the complete tokens of each chunk.
+   * In the first case, a skipped object or array is scanned by the lexer to its closing bracket,
+   * in the second case, the tokens of a skipped object or array are counted because the closing bracket
+   * may be in a next chunk.
+   */
+  private static final class Parser {
+    private enum State {
+      /** before the first token of the text */
+      TEXT,
+      /** after the opening curly brace of an object */
+      FIRST_KEY,
+      /** after a comma in an object */
+      KEY,
+      /** after a key */
+      COLON,
+      /** after a colon or a comma in an array */
+      VALUE,
+      /** after the opening bracket of an array */
+      FIRST_ELEMENT,
+      /** after a value */
+      NEXT,
+      /** inside a value skipped because its key is not accepted */
+      SKIP,
+      /** after the end of the text */
+      END
+    }
+
+    private final int maxDepth;
+    private final boolean incremental;
+    private JSONVisitor visitor;
+    private State state;
+    /**
+     * For each enclosing value, true if it is an object, its key, the index of its key
+     * and the key table of the object.
+     */
+    private boolean[] objects = new boolean[16];
+    private String[] keys = new String[16];
+    private int[] keyIndexes = new int[16];
+    private KeyTable[] keyTables = new KeyTable[16];
+    private int depth;
+    /**
+     * The key of the next value and its index in the key table, null and -1 inside an array.
+     */
+    private String key;
+    private int keyIndex = -1;
+    private int skipDepth;
+
+    private Parser(int maxDepth, boolean incremental) {
+      if (maxDepth <= 0) {
+        throw new IllegalArgumentException("invalid max depth " + maxDepth);
+      }
+      this.maxDepth = maxDepth;
+      this.incremental = incremental;
+    }
+
+    /**
+     * Starts to parse a new text, if the visitor is null, the parser keeps no reference on the previous text.
+     */
+    private void reset(JSONVisitor visitor) {
+      this.visitor = visitor;
+      state = State.TEXT;
+      Arrays.fill(keys, 0, depth, null);
+      Arrays.fill(keyTables, 0, depth, null);
+      depth = 0;
+      key = null;
+      keyIndex = -1;
+      skipDepth = 0;
+    }
+
+    /**
+     * Parses the whole input, only whitespaces can follow the end of the text.
+     */
+    private void parse(Lexer lexer, JSONVisitor visitor) {
+      reset(visitor);
+      try {
+        do {
+          step(lexer.next(), lexer);
+        } while (state != State.END);
+        if (lexer.skipWhitespaces()) {
+          step(lexer.next(), lexer);  // throws an error
+        }
+      } finally {
+        reset(null);
+      }
+    }
+
+    private boolean isEnd() {
+      return state == State.END;
+    }
+
+    private void step(Kind kind, Lexer lexer) {
+      switch (state) {
+        case TEXT -> {
+          switch (kind) {
+            case LEFT_CURLY, LEFT_BRACKET -> value(kind, lexer);
+            default -> throw lexer.error(kind, LEFT_CURLY, LEFT_BRACKET);
+          }
+        }
+        case FIRST_KEY -> {
+          if (kind == RIGHT_CURLY) {
+            end();
+            return;
+          }
+          key(kind, lexer);
+        }
+        case KEY -> key(kind, lexer);
+        case COLON -> {
+          lexer.expect(kind, COLON);
+          state = State.VALUE;
+        }
+        case VALUE -> value(kind, lexer);
+        case FIRST_ELEMENT -> {
+          if (kind == RIGHT_BRACKET) {
+            end();
+            return;
+          }
+          value(kind, lexer);
+        }
+        case NEXT -> {
+          var object = objects[depth - 1];
+          if (kind == COMMA) {
+            key = null;
+            keyIndex = -1;
+            state = object? State.KEY: State.VALUE;
+            return;
+          }
+          lexer.expect(kind, object? RIGHT_CURLY: RIGHT_BRACKET);
+          end();
+        }
+        case SKIP -> {
+          switch (kind) {
+            case LEFT_CURLY, LEFT_BRACKET -> skipDepth++;
+            case RIGHT_CURLY, RIGHT_BRACKET -> {
+              if (--skipDepth == 0) {
+                state = State.NEXT;
+              }
+            }
+            default -> {}
+          }
+        }
+        case END -> throw new IllegalStateException("unexpected " + kind + " after the end of the text at " + lexer.location());
+      }
+    }
+
+    private void key(Kind kind, Lexer lexer) {
+      lexer.expect(kind, STRING);
+      var keyTable = keyTables[depth - 1];
+      keyIndex = keyTable == null? -1: lexer.keyIndex(keyTable);
+      key = keyIndex == -1? lexer.text(): keyTable.key(keyIndex);
+      state = State.COLON;
+    }
+
+    private void value(Kind kind, Lexer lexer) {
+      if (key != null && !visitor.accept(key, keyIndex)) {
+        if (!incremental) {
+          lexer.skipValue(kind);
+          state = State.NEXT;
+          return;
+        }
+        switch (kind) {
+          case NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING -> state = State.NEXT;
+          case LEFT_CURLY, LEFT_BRACKET -> {
+            skipDepth = 1;
+            state = State.SKIP;
+          }
+          default -> throw lexer.error(kind, NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+        }
         return;
       }
-      token.expect(COMMA);
-      token = lexer.next();
+      switch (kind) {
+        case LEFT_CURLY -> {
+          checkDepth(lexer);
+          visitor.startObject(key, keyIndex);
+          push(true);
+        }
+        case LEFT_BRACKET -> {
+          checkDepth(lexer);
+          visitor.startArray(key, keyIndex);
+          push(false);
+        }
+        default -> {
+          visitScalar(key, keyIndex, kind, lexer, visitor);
+          state = State.NEXT;
+        }
+      }
+    }
+
+    private void checkDepth(Lexer lexer) {
+      if (depth == maxDepth) {
+        throw new IllegalStateException("maximum depth " + maxDepth + " exceeded at " + lexer.location());
+      }
+    }
+
+    private void push(boolean object) {
+      if (depth == objects.length) {
+        objects = Arrays.copyOf(objects, depth << 1);
+        keys = Arrays.copyOf(keys, depth << 1);
+        keyIndexes = Arrays.copyOf(keyIndexes, depth << 1);
+        keyTables = Arrays.copyOf(keyTables, depth << 1);
+      }
+      objects[depth] = object;
+      keys[depth] = key;
+      keyIndexes[depth] = keyIndex;
+      keyTables[depth] = object? visitor.keyTable(): null;
+      depth++;
+      key = null;
+      keyIndex = -1;
+      state = object? State.FIRST_KEY: State.FIRST_ELEMENT;
+    }
+
+    private void end() {
+      depth--;
+      var key = keys[depth];
+      keys[depth] = null;
+      keyTables[depth] = null;
+      if (objects[depth]) {
+        visitor.endObject(key, keyIndexes[depth]);
+      } else {
+        visitor.endArray(key, keyIndexes[depth]);
+      }
+      state = depth == 0? State.END: State.NEXT;
+    }
+  }
+
+  /**
+   * A push parser of a JSON text encoded in UTF-8, the text is {@link #feed(ByteBuffer) fed} by chunks of bytes
+   * as they arrive, by example from a non-blocking channel, and the visitor is called as soon as a token is complete.
+   *
+   * A {@link Parser} is a state machine so it can be suspended at the end of a chunk.
+   * The tokens are read directly from the chunk, only the bytes of a token that continues in the next chunk
+   * are copied, so the whole text is never kept in memory.
+   * A push parser is not thread safe and parses only one JSON text.
+   */
+  static final class PushParser {
+    private static final int PENDING_SIZE = 256;
+
+    private final Parser parser;
+    private final long maxSize;
+    private final Utf8Lexer lexer = new Utf8Lexer();
+    /**
+     * The bytes of the incomplete token at the end of the previous chunks.
+     */
+    private byte[] pending = new byte[PENDING_SIZE];
+    private int pendingLength;
+    /**
+     * The offset of the first pending byte in the whole text.
+     */
+    private long pendingOffset;
+    private long size;
+    /**
+     * True after an error or after the call to finish.
+     */
+    private boolean closed;
+
+    PushParser(JSONVisitor visitor) {
+      this(visitor, DEFAULT_MAX_DEPTH, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a push parser that rejects a text deeper than maxDepth or larger than maxSize bytes,
+     * the size is checked before a chunk is parsed.
+     */
+    PushParser(JSONVisitor visitor, int maxDepth, long maxSize) {
+      Objects.requireNonNull(visitor);
+      parser = new Parser(maxDepth, true);
+      parser.reset(visitor);
+      this.maxSize = maxSize;
+    }
+
+    /**
+     * Parses the remaining bytes of a buffer, the position of the buffer is moved to its limit.
+     *
+     * @param buffer a chunk of the JSON text.
+     * @throws IllegalStateException if the text is not valid or if the parser is closed.
+     */
+    void feed(ByteBuffer buffer) {
+      checkNotClosed();
+      try {
+        var offset = size;
+        size += buffer.remaining();
+        checkSize(size, maxSize);
+        var chunk = MemorySegment.ofBuffer(buffer);
+        var from = pendingLength == 0? 0: completePending(chunk);
+        if (pendingLength == 0) {
+          var consumed = from + process(chunk.asSlice(from), offset + from);
+          pendingOffset = offset + consumed;
+          append(chunk, consumed, chunk.byteSize());
+        }
+        buffer.position(buffer.limit());
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    /**
+     * Signals the end of the text, the parser is closed.
+     *
+     * @throws IllegalStateException if the text is not complete or if the parser is closed.
+     */
+    void finish() {
+      checkNotClosed();
+      var end = parser.isEnd();
+      close();
+      if (!end || pendingLength != 0) {
+        throw new IllegalStateException("unexpected end of the text");
+      }
+    }
+
+    private void checkNotClosed() {
+      if (closed) {
+        throw new IllegalStateException("the parser is closed");
+      }
+    }
+
+    private void close() {
+      closed = true;
+      parser.reset(null);
+    }
+
+    /**
+     * Appends to the pending bytes only the bytes of the chunk that complete the pending token,
+     * parses them and returns the offset in the chunk of the first byte that is not parsed.
+     * If the token continues after the chunk, the whole chunk is kept and its size is returned.
+     */
+    private long completePending(MemorySegment chunk) {
+      var pendingTokenLength = pendingLength;
+      append(chunk, 0, tokenEnd(chunk));
+      var consumed = (int) process(MemorySegment.ofArray(pending).asSlice(0, pendingLength), pendingOffset);
+      if (consumed < pendingTokenLength) {  // the token is still incomplete
+        System.arraycopy(pending, consumed, pending, 0, pendingLength - consumed);
+        pendingLength -= consumed;
+        pendingOffset += consumed;
+        return chunk.byteSize();
+      }
+      pendingLength = 0;
+      return consumed - pendingTokenLength;
+    }
+
+    /**
+     * Returns the number of bytes at the start of the chunk needed to complete the pending token,
+     * a string up to its closing quote, a number or a keyword up to the byte that follows it,
+     * or the size of the chunk if the token continues after the chunk.
+     */
+    private long tokenEnd(MemorySegment chunk) {
+      var limit = chunk.byteSize();
+      var index = 0L;
+      if (pending[0] == '"') {
+        if (lexer.scanned + 1 < pendingLength) {  // the pending bytes end with a backslash
+          index++;
+        }
+        for(; index < limit; index++) {
+          var b = chunk.get(ValueLayout.JAVA_BYTE, index);
+          if (b == '"') {
+            return index + 1;
+          }
+          if (b == '\\') {
+            index++;  // skip the escaped character, it can be a quote
+          }
+        }
+        return limit;
+      }
+      for(; index < limit; index++) {
+        if (!Utf8Lexer.isTokenPart(chunk.get(ValueLayout.JAVA_BYTE, index))) {
+          return index + 1;
+        }
+      }
+      return limit;
+    }
+
+    /**
+     * Keeps the bytes of the chunk between from and to.
+     */
+    private void append(MemorySegment chunk, long from, long to) {
+      var length = Math.toIntExact(to - from);
+      if (pendingLength + length > pending.length) {
+        pending = Arrays.copyOf(pending, Math.max(pending.length << 1, pendingLength + length));
+      }
+      MemorySegment.copy(chunk, from, MemorySegment.ofArray(pending), pendingLength, length);
+      pendingLength += length;
+    }
+
+    /**
+     * Parses the complete tokens of the input that starts at the offset of the whole text.
+     * @return the offset of the first byte of the incomplete token.
+     */
+    private long process(MemorySegment input, long offset) {
+      lexer.reset(input, offset);
+      try {
+        while (lexer.hasNext()) {
+          parser.step(lexer.next(), lexer);
+        }
+        return lexer.index;
+      } finally {
+        lexer.reset(null);  // do not keep a reference on the chunk, it is reused by the caller
+      }
+    }
+  }
+
+  private static void visitScalar(String currentKey, int keyIndex, Kind kind, Lexer lexer, JSONVisitor visitor) {
+    switch (kind) {
+      case NULL -> visitor.value(currentKey, keyIndex, null);
+      case FALSE -> visitor.value(currentKey, keyIndex, false);
+      case TRUE -> visitor.value(currentKey, keyIndex, true);
+      case INTEGER -> {
+        var value = lexer.longValue();
+        if (value == (int) value) {
+          visitor.value(currentKey, keyIndex, (int) value);
+        } else {
+          visitor.value(currentKey, keyIndex, value);
+        }
+      }
+      case DOUBLE -> visitor.value(currentKey, keyIndex, lexer.doubleValue());
+      case STRING -> visitor.value(currentKey, keyIndex, lexer.text());
+      default -> throw lexer.error(kind, NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+    }
+  }
+
+  /**
+   * A growable array of entries, each entry is 3 ints, the kind ordinal, the start and the end of a token.
+   * @see #index(String)
+   */
+  private static final class Tape {
+    private int[] entries = new int[3 * 16];
+    private int size;
+
+    private int add(Kind kind, int start, int end) {
+      if (size == entries.length) {
+        entries = Arrays.copyOf(entries, size << 1);
+      }
+      entries[size] = kind.ordinal();
+      entries[size + 1] = start;
+      entries[size + 2] = end;
+      var index = size / 3;
+      size += 3;
+      return index;
+    }
+
+    private void link(int index, int closeIndex) {
+      entries[3 * index + 2] = closeIndex;
     }
+
+    private int[] toArray() {
+      return Arrays.copyOf(entries, size);
+    }
+  }
+
+  /**
+   * Index the structure of a JSON text in one pass without decoding any value.
+   * The index is an array of entries of 3 ints: the ordinal of the {@link Kind} of a token,
+   * the start and the end of the token in the input. The bounds of a string do not include the quotes.
+   * The tokens {@link Kind#COLON} and {@link Kind#COMMA} are not indexed and the end of the entry of
+   * a {@link Kind#LEFT_CURLY} or a {@link Kind#LEFT_BRACKET} is the index of the entry of the corresponding
+   * {@link Kind#RIGHT_CURLY} or {@link Kind#RIGHT_BRACKET}, so a whole object or array can be skipped.
+   *
+   * @param input a JSON text
+   * @return the entries of the index
+   */
+  static int[] index(String input) {
+    return index(input, DEFAULT_MAX_DEPTH, Long.MAX_VALUE);
   }
 
-  private static void parseArray(String currentKey, Lexer lexer, JSONVisitor visitor) {
-    var token = lexer.next();
-    if (token.is(RIGHT_BRACKET)) {
-      visitor.endArray(currentKey);
-      return;
+  /**
+   * Index the structure of a JSON text like {@link #index(String)} but rejects a text
+   * larger than maxSize characters before indexing it and a value nested deeper than maxDepth.
+   *
+   * @param input a JSON text
+   * @param maxDepth the maximum nesting depth of the objects and the arrays
+   * @param maxSize the maximum size of the text in characters
+   * @return the entries of the index
+   */
+  static int[] index(String input, int maxDepth, long maxSize) {
+    checkSize(input.length(), maxSize);
+    var lexer = new CharLexer(maxSize);
+    lexer.reset(null, input);
+    var tape = new Tape();
+    try {
+      var kind = lexer.next();
+      if (kind != LEFT_CURLY && kind != LEFT_BRACKET) {
+        throw lexer.error(kind, LEFT_CURLY, LEFT_BRACKET);
+      }
+      index(kind, lexer, tape, maxDepth);
+      if (lexer.skipWhitespaces()) {
+        throw new IllegalStateException("unexpected " + lexer.next() + " after the end of the text at " + lexer.location());
+      }
+    } catch(IllegalStateException e) {
+      throw new IllegalStateException(e.getMessage() + "\n while parsing " + input, e);
     }
+    return tape.toArray();
+  }
+
+  /**
+   * Indexes the value starting with the token kind without recursion, the tape entries
+   * of the opening brackets of the enclosing objects and arrays are on an explicit stack,
+   * the lowest bit of an element of the stack is set if the value is an object.
+   */
+  private static void index(Kind kind, CharLexer lexer, Tape tape, int maxDepth) {
+    var stack = new int[16];
+    var depth = 0;
     for(;;) {
-      parseValue(null, token, lexer, visitor);
-      token = lexer.next();
-      if (token.is(RIGHT_BRACKET)) {
-        visitor.endArray(currentKey);
-        return;
+      // kind is the first token of a value
+      switch (kind) {
+        case NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING -> {
+          tape.add(kind, lexer.position(), lexer.endPosition());
+          kind = lexer.next();
+        }
+        case LEFT_CURLY, LEFT_BRACKET -> {
+          if (depth == maxDepth) {
+            throw new IllegalStateException("maximum depth " + maxDepth + " exceeded at " + lexer.location());
+          }
+          if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth << 1);
+          }
+          var object = kind == LEFT_CURLY;
+          stack[depth++] = tape.add(kind, lexer.position(), lexer.endPosition()) << 1 | (object? 1: 0);
+          kind = lexer.next();
+          if (kind != (object? RIGHT_CURLY: RIGHT_BRACKET)) {
+            if (object) {
+              kind = indexKey(kind, lexer, tape);
+            }
+            continue;
+          }
+        }
+        default -> throw lexer.error(kind, NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+      }
+      // kind is the token after a value, a comma or the closing bracket of the enclosing value
+      for(;;) {
+        var object = (stack[depth - 1] & 1) != 0;
+        if (kind == COMMA) {
+          kind = lexer.next();
+          if (object) {
+            kind = indexKey(kind, lexer, tape);
+          }
+          break;
+        }
+        lexer.expect(kind, object? RIGHT_CURLY: RIGHT_BRACKET);
+        tape.link(stack[--depth] >>> 1, tape.add(kind, lexer.position(), lexer.endPosition()));
+        if (depth == 0) {
+          return;
+        }
+        kind = lexer.next();
       }
-      token.expect(COMMA);
-      token = lexer.next();
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Indexes the key starting with the token kind and the colon.
+   * @return the first token of the value.
+   */
+  private static Kind indexKey(Kind kind, CharLexer lexer, Tape tape) {
+    lexer.expect(kind, STRING);
+    tape.add(STRING, lexer.position(), lexer.endPosition());
+    lexer.expect(lexer.next(), COLON);
+    return lexer.next();
+  }
+}
@@ -4,21 +4,50 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
-
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.joining;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -558,4 +587,1028 @@ public class JSONReaderTest {
     }
 
   }  // end of Q7
-}
\ No newline at end of file
+
+
+  @Nested
+  public class Streaming {
+
+    public record Person(String name, int age) { }
+    public record Wrapper(List<Person> people) { }
+
+    @Test
+    public void readJSONReader() {
+      var reader = Readers.recordReader();
+      var person = reader.readJSON(new StringReader("""
+        { "name": "Ana", "age": 24 }
+        """), Person.class);
+      assertEquals(new Person("Ana", 24), person);
+    }
+
+    @Test
+    public void readJSONInputStream() {
+      var reader = Readers.recordReader();
+      var person = reader.readJSON(new ByteArrayInputStream("""
+        { "name": "Zoé", "age": 31 }
+        """.getBytes(StandardCharsets.UTF_8)), Person.class);
+      assertEquals(new Person("Zoé", 31), person);
+    }
+
+    @Test
+    public void readJSONChannel() {
+      var reader = Readers.recordReader();
+      var person = reader.readJSON(Channels.newChannel(new ByteArrayInputStream("""
+        { "name": "Bob", "age": 52 }
+        """.getBytes(StandardCharsets.UTF_8))), Person.class);
+      assertEquals(new Person("Bob", 52), person);
+    }
+
+    @Test
+    public void readJSONLargerThanBuffer() {
+      var names = IntStream.range(0, 10_000).mapToObj(i -> "name" + i).toList();
+      var text = names.stream().map(name -> "{ \"name\": \"" + name + "\", \"age\": 7 }").collect(joining(",\n", "[", "]"));
+      var reader = Readers.recordReader();
+      var listOfPerson = Wrapper.class.getRecordComponents()[0].getGenericType();
+      var people = reader.readJSON(new StringReader(text), listOfPerson);
+      assertEquals(names.stream().map(name -> new Person(name, 7)).toList(), people);
+    }
+
+    @Test
+    public void readJSONStreamingPreconditions() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> reader.readJSON((Reader) null, String.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.readJSON((InputStream) null, String.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.readJSON((ReadableByteChannel) null, String.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.readJSON(new StringReader(""), (Type) null))
+      );
+    }
+
+  }  // end of Streaming
+
+
+  @Nested
+  public class Primitives {
+
+    @SuppressWarnings("unused")
+    public static class MetricBean {
+      private int count;
+      private long total;
+      private double mean;
+      private double max;
+      private boolean valid;
+      private Integer boxed;
+      private Number number;
+      private Object object;
+
+      public void setCount(int count) {
+        this.count = count;
+      }
+      public void setTotal(long total) {
+        this.total = total;
+      }
+      public void setMean(double mean) {
+        this.mean = mean;
+      }
+      public void setMax(double max) {
+        this.max = max;
+      }
+      public void setValid(boolean valid) {
+        this.valid = valid;
+      }
+      public void setBoxed(Integer boxed) {
+        this.boxed = boxed;
+      }
+      public void setNumber(Number number) {
+        this.number = number;
+      }
+      public void setObject(Object object) {
+        this.object = object;
+      }
+    }
+
+    @Test
+    public void parseJSONPrimitiveConversions() {
+      var reader = new JSONReader();
+      var bean = reader.parseJSON("""
+        {
+          "count": 3, "total": 12, "mean": 4.5, "max": 7, "valid": true,
+          "boxed": 42, "number": 2.5, "object": false
+        }
+        """, MetricBean.class);
+      assertAll(
+          () -> assertEquals(3, bean.count),
+          () -> assertEquals(12L, bean.total),
+          () -> assertEquals(4.5, bean.mean),
+          () -> assertEquals(7.0, bean.max),
+          () -> assertTrue(bean.valid),
+          () -> assertEquals(Integer.valueOf(42), bean.boxed),
+          () -> assertEquals(2.5, bean.number),
+          () -> assertEquals(false, bean.object)
+      );
+    }
+
+    @Test
+    public void objectBuilderBeanPrimitivePopulater() {
+      var objectBuilder = JSONReader.ObjectBuilder.bean(MetricBean.class);
+      var bean = (MetricBean) objectBuilder.supplier().get();
+      objectBuilder.populater().populate(bean, "count", 3);
+      objectBuilder.populater().populate(bean, "total", 12L);
+      objectBuilder.populater().populate(bean, "mean", 4.5);
+      objectBuilder.populater().populate(bean, "valid", true);
+      objectBuilder.populater().populate(bean, "boxed", (Object) 42);
+      assertAll(
+          () -> assertEquals(3, bean.count),
+          () -> assertEquals(12L, bean.total),
+          () -> assertEquals(4.5, bean.mean),
+          () -> assertTrue(bean.valid),
+          () -> assertEquals(Integer.valueOf(42), bean.boxed)
+      );
+    }
+
+    @Test
+    public void parseJSONIntegerOutOfLongRange() {
+      var reader = new JSONReader();
+      var bean = reader.parseJSON("""
+        { "mean": 12345678901234567890, "number": 9223372036854775808, "object": -9223372036854775809 }
+        """, MetricBean.class);
+      assertAll(
+          () -> assertEquals(12345678901234567890.0, bean.mean),
+          () -> assertEquals(9223372036854775808.0, bean.number),
+          () -> assertEquals(-9223372036854775809.0, bean.object)
+      );
+    }
+
+  }  // end of Primitives
+
+
+  @Nested
+  public class PrimitiveArrays {
+
+    public record Series(String name, long[] timestamps, double[] values) { }
+
+    @Test
+    public void parseJSONIntArray() {
+      var reader = new JSONReader();
+      var array = reader.parseJSON("""
+        [ 1, 5, 78, 4 ]
+        """, int[].class);
+      assertArrayEquals(new int[] { 1, 5, 78, 4 }, array);
+    }
+
+    @Test
+    public void parseJSONEmptyArray() {
+      var reader = new JSONReader();
+      assertArrayEquals(new double[0], reader.parseJSON("[]", double[].class));
+    }
+
+    @Test
+    public void parseJSONPrimitiveArraysInARecord() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+      var series = reader.parseJSON("""
+        {
+          "name": "cpu",
+          "timestamps": [ 1000, 2000, 3000 ],
+          "values": [ 0.5, 1, 0.25 ]
+        }
+        """, Series.class);
+      assertAll(
+          () -> assertEquals("cpu", series.name),
+          () -> assertArrayEquals(new long[] { 1000, 2000, 3000 }, series.timestamps),
+          () -> assertArrayEquals(new double[] { 0.5, 1, 0.25 }, series.values)
+      );
+    }
+
+    @Test
+    public void parseJSONLargeIntArray() {
+      var expected = IntStream.range(0, 100_000).toArray();
+      var text = IntStream.of(expected).mapToObj(Integer::toString).collect(joining(", ", "[", "]"));
+      var reader = new JSONReader();
+      assertArrayEquals(expected, reader.parseJSON(text, int[].class));
+    }
+
+    @Test
+    public void parseJSONIntArrayInvalidElement() {
+      var reader = new JSONReader();
+      assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+        [ 1, "foo" ]
+        """, int[].class));
+    }
+
+  }  // end of PrimitiveArrays
+
+
+  @Nested
+  public class ObjectBuilderCache {
+
+    public record Point(int x, int y) { }
+
+    @Test
+    public void objectBuilderRecordIsMemoized() {
+      assertSame(JSONReader.ObjectBuilder.record(Point.class), JSONReader.ObjectBuilder.record(Point.class));
+    }
+
+    @Test
+    public void findObjectBuilderIsCached() {
+      var reader = new JSONReader();
+      var counter = new int[1];
+      reader.addTypeMatcher(type -> {
+        counter[0]++;
+        return Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record);
+      });
+      var first = reader.findObjectBuilder(Point.class);
+      var second = reader.findObjectBuilder(Point.class);
+      assertAll(
+          () -> assertSame(first, second),
+          () -> assertEquals(1, counter[0])
+      );
+    }
+
+    @Test
+    public void addTypeMatcherInvalidatesTheCache() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+      assertEquals(new Point(1, 2), reader.parseJSON("""
+        { "x": 1, "y": 2 }
+        """, Point.class));
+      reader.addTypeMatcher(type -> Optional.of(new JSONReader.ObjectBuilder<>(
+          key -> int.class,
+          () -> new int[1],
+          (sum, key, value) -> sum[0] += (int) value,
+          sum -> new Point(sum[0], 0)
+      )));
+      assertEquals(new Point(3, 0), reader.parseJSON("""
+        { "x": 1, "y": 2 }
+        """, Point.class));
+    }
+
+    @Test
+    public void decodingPlanResolvesTypesOnce() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+      var counter = new int[1];
+      reader.addTypeMatcher(type -> Optional.of(type).filter(t -> t == Map.class).map(_ -> new JSONReader.ObjectBuilder<>(
+          key -> {
+            counter[0]++;
+            return Point.class;
+          },
+          LinkedHashMap<String, Object>::new,
+          (map, key, value) -> map.put(key, value),
+          Function.identity(),
+          Optional.of(Set.of("a", "b"))
+      )));
+      for (var i = 0; i < 3; i++) {
+        assertEquals(Map.of("a", new Point(1, 2), "b", new Point(i, i)), reader.parseJSON("""
+            { "a": { "x": 1, "y": 2 }, "b": { "x": %d, "y": %d } }
+            """.formatted(i, i), Map.class));
+      }
+      assertEquals(2, counter[0]);
+    }
+
+    @Test
+    public void keysWithTheSameHashForEveryMultiplier() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(type).filter(t -> t == Map.class).map(_ -> new JSONReader.ObjectBuilder<>(
+          key -> int.class,
+          LinkedHashMap<String, Object>::new,
+          (map, key, value) -> map.put(key, value),
+          Function.identity(),
+          Optional.of(Set.of("a", "\u0000a"))
+      )));
+      var text = """
+          { "a": 1, "\\u0000a": 2 }
+          """;
+      var expected = Map.of("a", 1, "\u0000a", 2);
+      assertAll(
+          () -> assertEquals(expected, reader.parseJSON(text, Map.class)),
+          () -> assertEquals(expected, reader.parseUtf8(text.getBytes(StandardCharsets.UTF_8), Map.class))
+      );
+    }
+
+    @Test
+    public void knownKeysArePopulatedByIndex() {
+      // the known keys are found in the key table, so the builder is never asked with a key
+      var keys = new AbstractSet<String>() {
+        private final List<String> list = List.of("x", "y");
+
+        @Override
+        public Iterator<String> iterator() {
+          return list.iterator();
+        }
+        @Override
+        public int size() {
+          return list.size();
+        }
+        @Override
+        public boolean contains(Object o) {
+          throw new AssertionError("lookup of " + o);
+        }
+      };
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(type).filter(t -> t == Point.class).map(_ -> new JSONReader.ObjectBuilder<>(
+          key -> {
+            throw new AssertionError("lookup of " + key);
+          },
+          () -> new int[2],
+          new JSONReader.ObjectBuilder.Populater<int[]>() {
+            @Override
+            public void populate(int[] array, String key, Object value) {
+              throw new AssertionError("lookup of " + key);
+            }
+            @Override
+            public void populate(int[] array, String key, int keyIndex, int value) {
+              array[keyIndex] = value;
+            }
+          },
+          array -> new Point(array[0], array[1]),
+          Optional.of(keys)
+      )));
+      var text = """
+          { "y": 2, "x": 1 }
+          """;
+      var expected = new Point(1, 2);
+      assertAll(
+          () -> assertEquals(expected, reader.parseJSON(text, Point.class)),
+          () -> assertEquals(expected, reader.readJSON(new StringReader(text), Point.class)),
+          () -> assertEquals(expected, reader.parseUtf8(text.getBytes(StandardCharsets.UTF_8), Point.class)),
+          () -> assertEquals(expected, reader.parseBinary(new JSONWriter().toBinary(expected), Point.class)),
+          () -> assertEquals(new Point(1, 0), reader.projectJSON(text, Point.class, "x"))
+      );
+    }
+
+    public record Tree(int value, List<Tree> children) { }
+
+    @Test
+    public void decodingPlanOfARecursiveType() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+      reader.addTypeMatcher(Readers.listTypeMatcher());
+      var json = """
+          { "value": 1, "children": [ { "value": 2, "children": [] }, { "value": 3, "children": [ { "value": 4, "children": [] } ] } ] }
+          """;
+      var expected = new Tree(1, List.of(new Tree(2, List.of()), new Tree(3, List.of(new Tree(4, List.of())))));
+      assertAll(
+          () -> assertEquals(expected, reader.parseJSON(json, Tree.class)),
+          () -> assertEquals(expected, reader.parseJSON(json, Tree.class))
+      );
+    }
+
+  }  // end of ObjectBuilderCache
+
+
+  @Nested
+  public class Projection {
+
+    public static class NameBean {
+      private String name;
+
+      public String getName() {
+        return name;
+      }
+
+      public void setName(String name) {
+        this.name = name;
+      }
+    }
+
+    public record Payload(int x, int y) { }
+    public record Event(String type, Payload payload, List<Payload> points) { }
+
+    @Test
+    public void projectBeanSkipsUnknownKeys() {
+      var reader = new JSONReader();
+      var bean = reader.projectJSON("""
+          { "id": 3, "name": "Bob", "friends": [ { "name": "Ana", "tags": [] } ], "extra": null }
+          """, NameBean.class);
+      assertEquals("Bob", bean.getName());
+    }
+
+    @Test
+    public void parseBeanStillRejectsUnknownKeys() {
+      var reader = new JSONReader();
+      assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+          { "id": 3, "name": "Bob" }
+          """, NameBean.class));
+    }
+
+    @Test
+    public void projectRecordSkipsUnknownKeys() {
+      var reader = Readers.recordReader();
+      var event = reader.projectJSON("""
+          { "type": "click", "payload": { "x": 1, "y": 2, "z": [ 3 ] }, "metadata": { "source": "web" }, "points": [] }
+          """, Event.class);
+      assertEquals(new Event("click", new Payload(1, 2), List.of()), event);
+    }
+
+    @Test
+    public void projectPaths() {
+      var reader = Readers.recordReader();
+      var event = reader.projectJSON("""
+          { "type": "click", "payload": { "x": 1, "y": 2 }, "points": [ { "x": 3, "y": 4 }, { "x": 5, "y": 6 } ] }
+          """, Event.class, "payload.x", "points");
+      assertEquals(new Event(null, new Payload(1, 0), List.of(new Payload(3, 4), new Payload(5, 6))), event);
+    }
+
+    @Test
+    public void projectPathsInsideArrays() {
+      var reader = Readers.recordReader();
+      var event = reader.projectJSON("""
+          { "type": "click", "points": [ { "x": 3, "y": 4 }, { "x": 5, "y": 6 } ] }
+          """, Event.class, "type", "points.y");
+      assertEquals(new Event("click", null, List.of(new Payload(0, 4), new Payload(0, 6))), event);
+    }
+
+    @Test
+    public void skippedValuesAreNotBuilt() {
+      var reader = Readers.recordReader();
+      var counter = new int[1];
+      reader.addTypeMatcher(type -> Optional.of(type).filter(t -> t == Payload.class).map(t -> new JSONReader.ObjectBuilder<>(
+          key -> int.class,
+          () -> {
+            counter[0]++;
+            return new int[2];
+          },
+          (array, key, value) -> array[key.equals("x")? 0: 1] = (int) value,
+          array -> new Payload(array[0], array[1]),
+          Optional.of(Set.of("x", "y"))
+      )));
+      var event = reader.projectJSON("""
+          { "type": "click", "payload": { "x": 1, "y": 2 }, "points": [ { "x": 3, "y": 4 } ] }
+          """, Event.class, "type");
+      assertAll(
+          () -> assertEquals(new Event("click", null, null), event),
+          () -> assertEquals(0, counter[0])
+      );
+    }
+
+    @Test
+    public void objectBuilderKeys() {
+      assertAll(
+          () -> assertEquals(Optional.of(Set.of("name")), JSONReader.ObjectBuilder.bean(NameBean.class).keys()),
+          () -> assertEquals(Optional.of(Set.of("x", "y")), JSONReader.ObjectBuilder.record(Payload.class).keys()),
+          () -> assertEquals(Optional.empty(), JSONReader.ObjectBuilder.list(String.class).keys())
+      );
+    }
+
+  }  // end of Projection
+
+
+  @Nested
+  public class JSONLines {
+
+    public record Line(int id, String name) { }
+
+    private static Path writeLines(int count) throws IOException {
+      var path = Files.createTempFile("lines", ".jsonl");
+      Files.writeString(path, IntStream.range(0, count)
+          .mapToObj(i -> "{ \"id\": " + i + ", \"name\": \"line " + i + "\" }\n")
+          .collect(joining()));
+      return path;
+    }
+
+    private static List<Line> expectedLines(int count) {
+      return IntStream.range(0, count).mapToObj(i -> new Line(i, "line " + i)).toList();
+    }
+
+    @Test
+    public void readJSONLines() throws IOException {
+      var path = Files.createTempFile("lines", ".jsonl");
+      try {
+        Files.writeString(path, """
+            { "id": 1, "name": "foo" }
+            
+            { "id": 2, "name": "bar" }\r
+            { "id": 3, "name": "baz" }""");
+        var reader = Readers.recordReader();
+        try(var lines = reader.readJSONLines(path, Line.class)) {
+          assertEquals(List.of(new Line(1, "foo"), new Line(2, "bar"), new Line(3, "baz")), lines.toList());
+        }
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONLinesEmptyFile() throws IOException {
+      var path = Files.createTempFile("lines", ".jsonl");
+      try {
+        var reader = Readers.recordReader();
+        try(var lines = reader.readJSONLines(path, Line.class)) {
+          assertEquals(0, lines.count());
+        }
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONLinesParallel() throws IOException {
+      var path = writeLines(100_000);
+      try {
+        var reader = Readers.recordReader();
+        try(var lines = reader.readJSONLines(path, Line.class)) {
+          assertEquals(expectedLines(100_000), lines.parallel().toList());
+        }
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONLinesExecutorOrdered() throws IOException {
+      var path = writeLines(100_000);
+      var executor = Executors.newFixedThreadPool(4);
+      try {
+        var reader = Readers.recordReader();
+        var values = new ArrayList<Object>();
+        reader.readJSONLines(path, Line.class, executor, true, values::add);
+        assertEquals(expectedLines(100_000), values);
+      } finally {
+        executor.shutdown();
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONLinesExecutorUnordered() throws IOException {
+      var path = writeLines(100_000);
+      var executor = Executors.newFixedThreadPool(4);
+      try {
+        var reader = Readers.recordReader();
+        var values = new ConcurrentLinkedQueue<Object>();
+        reader.readJSONLines(path, Line.class, executor, false, values::add);
+        assertEquals(new HashSet<>(expectedLines(100_000)), new HashSet<>(values));
+      } finally {
+        executor.shutdown();
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONLinesExecutorOrderedBoundedChunks() throws IOException {
+      var path = writeLines(400_000);  // more than 8 chunks of 1 MiB
+      var pool = Executors.newFixedThreadPool(4);
+      var submitted = new AtomicInteger();
+      Executor executor = task -> {
+        submitted.incrementAndGet();
+        pool.execute(task);
+      };
+      try {
+        var reader = Readers.recordReader();
+        var submittedAtFirstValue = new int[] { -1 };
+        var values = new ArrayList<Object>();
+        reader.readJSONLines(path, Line.class, executor, true, value -> {
+          if (values.isEmpty()) {
+            submittedAtFirstValue[0] = submitted.get();
+          }
+          values.add(value);
+        });
+        assertAll(
+            () -> assertEquals(expectedLines(400_000), values),
+            () -> assertTrue(submittedAtFirstValue[0] <= 8),
+            () -> assertTrue(submitted.get() > 8)
+        );
+      } finally {
+        pool.shutdown();
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONLinesExecutorInvalidLine() throws IOException {
+      var path = Files.createTempFile("lines", ".jsonl");
+      var executor = Executors.newFixedThreadPool(2);
+      try {
+        Files.writeString(path, """
+            { "id": 1, "name": "foo" }
+            { "id": 2, "name": }
+            """);
+        var reader = Readers.recordReader();
+        assertThrows(IllegalStateException.class, () -> reader.readJSONLines(path, Line.class, executor, true, value -> {}));
+      } finally {
+        executor.shutdown();
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONLinesNoFile() {
+      var reader = Readers.recordReader();
+      assertThrows(UncheckedIOException.class, () -> reader.readJSONLines(Path.of("does/not/exist.jsonl"), Line.class));
+    }
+
+  }  // end of JSONLines
+
+
+  @Nested
+  public class Sessions {
+    public record Point(int x, int y) { }
+
+    @Test
+    public void parseAfterAnError() {
+      var reader = Readers.recordReader();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "x": 1, "y": ]
+              """, Point.class)),
+          () -> assertEquals(new Point(3, 4), reader.parseJSON("""
+              { "x": 3, "y": 4 }
+              """, Point.class))
+      );
+    }
+
+    @Test
+    public void parseAfterALargeToken() {
+      var reader = new JSONReader();
+      reader.addTypeMatcher(Readers.listTypeMatcher());
+      var large = "a".repeat(200_000);
+      assertAll(
+          () -> assertEquals(List.of(large), reader.parseJSON("[ \"" + large + "\" ]", new JSONReader.TypeReference<List<String>>() {})),
+          () -> assertEquals(List.of("b"), reader.parseJSON("[ \"b\" ]", new JSONReader.TypeReference<List<String>>() {}))
+      );
+    }
+
+    @Test
+    public void parseDuringAParsing() {
+      var reader = Readers.recordReader();
+      reader.addTypeMatcher(type -> Optional.of(type).filter(t -> t == CharSequence.class).map(_ -> new JSONReader.ObjectBuilder<>(
+          key -> String.class,
+          StringBuilder::new,
+          (builder, key, value) -> builder.append(value),
+          builder -> reader.parseJSON(builder.toString(), Point.class)
+      )));
+      assertEquals(new Point(1, 2), reader.parseJSON("""
+          [ "{ \\"x\\": 1,", " \\"y\\": 2 }" ]
+          """, (Type) CharSequence.class));
+    }
+
+    @Test
+    public void parseWithVirtualThreads() throws InterruptedException {
+      var reader = Readers.recordReader();
+      var errors = new ConcurrentLinkedQueue<Throwable>();
+      var threads = IntStream.range(0, 1_000)
+          .mapToObj(i -> Thread.ofVirtual().start(() -> {
+            try {
+              for (var j = 0; j < 10; j++) {
+                var point = reader.parseJSON("""
+                    { "x": %d, "y": %d }
+                    """.formatted(i, j), Point.class);
+                if (!point.equals(new Point(i, j))) {
+                  throw new AssertionError(point + " " + i + " " + j);
+                }
+                Thread.yield();
+              }
+            } catch (Throwable t) {
+              errors.add(t);
+            }
+          }))
+          .toList();
+      for (var thread : threads) {
+        thread.join();
+      }
+      assertEquals(List.of(), List.copyOf(errors));
+    }
+  }  // end of Sessions
+
+
+  @Nested
+  public class Utf8 {
+    public record Person(String name, int age, List<String> tags) { }
+
+    private static final String TEXT = """
+        { "name": "Zoé", "age": 33, "tags": [ "日本", "a\\nb" ] }
+        """;
+    private static final Person PERSON = new Person("Zoé", 33, List.of("日本", "a\nb"));
+
+    @Test
+    public void parseUtf8Bytes() {
+      var reader = Readers.recordReader();
+      assertEquals(PERSON, reader.parseUtf8(TEXT.getBytes(StandardCharsets.UTF_8), Person.class));
+    }
+
+    @Test
+    public void parseUtf8ByteBuffer() {
+      var reader = Readers.recordReader();
+      var buffer = ByteBuffer.allocateDirect(256);
+      buffer.put(TEXT.getBytes(StandardCharsets.UTF_8)).flip();
+      assertAll(
+          () -> assertEquals(PERSON, reader.parseUtf8(buffer, Person.class)),
+          () -> assertEquals(0, buffer.position())
+      );
+    }
+
+    @Test
+    public void parseUtf8Segment() {
+      var reader = Readers.recordReader();
+      var bytes = ("xx" + TEXT + "yy").getBytes(StandardCharsets.UTF_8);
+      var segment = MemorySegment.ofArray(bytes).asSlice(2, bytes.length - 4);
+      assertEquals(PERSON, reader.parseUtf8(segment, Person.class));
+    }
+
+    @Test
+    public void parseUtf8SameAsParseJSON() {
+      var reader = Readers.recordReader();
+      var text = """
+          { "name": "\\u00c9mile", "tags": [], "age": -1 }
+          """;
+      assertEquals(reader.parseJSON(text, Person.class), reader.parseUtf8(text.getBytes(StandardCharsets.UTF_8), Person.class));
+    }
+
+    @Test
+    public void parseUtf8Invalid() {
+      var reader = Readers.recordReader();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseUtf8(new byte[] { '{', '"', 'n', 'a', 'm', 'e', '"', ':', '"', (byte) 0xFF, '"', '}' }, Person.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseUtf8("{ \"name\": ".getBytes(StandardCharsets.UTF_8), Person.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseUtf8((byte[]) null, Person.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseUtf8(new byte[0], (Type) null))
+      );
+    }
+  }  // end of Utf8
+
+  @Nested
+  public class MappedFile {
+    public record Entry(String word, List<String> definitions) { }
+    public record Dictionary(String name, int size, List<Entry> entries) { }
+
+    private static Path writeDictionary(int size) throws IOException {
+      var path = Files.createTempFile("dictionary", ".json");
+      Files.writeString(path, IntStream.range(0, size)
+          .mapToObj(i -> "{ \"word\": \"mot" + i + "\", \"definitions\": [ \"définition " + i + "\" ] }")
+          .collect(joining(",\n", "{ \"name\": \"français\", \"size\": " + size + ", \"entries\": [\n", "\n] }")));
+      return path;
+    }
+
+    @Test
+    public void readJSON() throws IOException {
+      var path = writeDictionary(10_000);
+      try {
+        var reader = Readers.recordReader();
+        var dictionary = reader.readJSON(path, Dictionary.class);
+        assertAll(
+            () -> assertEquals("français", dictionary.name()),
+            () -> assertEquals(10_000, dictionary.entries().size()),
+            () -> assertEquals(new Entry("mot9999", List.of("définition 9999")), dictionary.entries().getLast())
+        );
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONSameAsParseJSON() throws IOException {
+      var path = writeDictionary(100);
+      try {
+        var reader = Readers.recordReader();
+        assertEquals(reader.parseJSON(Files.readString(path), Dictionary.class), reader.readJSON(path, Dictionary.class));
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void projectJSON() throws IOException {
+      var path = writeDictionary(10_000);
+      try {
+        var reader = Readers.recordReader();
+        assertEquals(new Dictionary("français", 10_000, null), reader.projectJSON(path, Dictionary.class, "name", "size"));
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONInvalid() throws IOException {
+      var path = Files.createTempFile("dictionary", ".json");
+      try {
+        Files.writeString(path, """
+            { "name": "français", "size":
+            """);
+        var reader = Readers.recordReader();
+        assertThrows(IllegalStateException.class, () -> reader.readJSON(path, Dictionary.class));
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void readJSONNoFile() {
+      var reader = Readers.recordReader();
+      assertAll(
+          () -> assertThrows(UncheckedIOException.class, () -> reader.readJSON(Path.of("does/not/exist.json"), Dictionary.class)),
+          () -> assertThrows(UncheckedIOException.class, () -> reader.projectJSON(Path.of("does/not/exist.json"), Dictionary.class, "name"))
+      );
+    }
+  }  // end of MappedFile
+
+  @Nested
+  public class Decoders {
+    public record Point(int x, int y) { }
+    public record Polygon(String name, List<Point> points) { }
+
+    private static final String TEXT = """
+        { "name": "triangle équilatéral", "points": [ { "x": 0, "y": 0 }, { "x": 10, "y": 0 }, { "x": 5, "y": 9 } ] }
+        """;
+    private static final Polygon POLYGON = new Polygon("triangle équilatéral", List.of(new Point(0, 0), new Point(10, 0), new Point(5, 9)));
+
+    @Test
+    public void decodeByChunks() {
+      var reader = Readers.recordReader();
+      var bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+      for (var chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+        var decoder = reader.newDecoder(Polygon.class);
+        var buffer = ByteBuffer.allocate(chunkSize);
+        for (var i = 0; i < bytes.length; i += chunkSize) {
+          buffer.clear();
+          buffer.put(bytes, i, Math.min(chunkSize, bytes.length - i));
+          decoder.feed(buffer.flip());
+        }
+        assertEquals(POLYGON, decoder.finish(), "chunk size " + chunkSize);
+      }
+    }
+
+    @Test
+    public void decodeFromAChannel() throws IOException {
+      var reader = Readers.recordReader();
+      var channel = Channels.newChannel(new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)));
+      var decoder = reader.newDecoder(Polygon.class);
+      var buffer = ByteBuffer.allocateDirect(16);
+      while (channel.read(buffer) != -1) {
+        decoder.feed(buffer.flip());
+        buffer.clear();
+      }
+      assertEquals(POLYGON, decoder.finish());
+    }
+
+    @Test
+    public void decodeIncomplete() {
+      var reader = Readers.recordReader();
+      var decoder = reader.newDecoder(Polygon.class);
+      decoder.feed(ByteBuffer.wrap("{ \"name\": \"a\", ".getBytes(StandardCharsets.UTF_8)));
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, decoder::finish),
+          () -> assertThrows(IllegalStateException.class, decoder::finish)
+      );
+    }
+
+    @Test
+    public void decodeInvalid() {
+      var reader = Readers.recordReader();
+      var decoder = reader.newDecoder(Polygon.class);
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> decoder.feed(ByteBuffer.wrap("{ \"name\" ]".getBytes(StandardCharsets.UTF_8)))),
+          () -> assertThrows(IllegalStateException.class, () -> decoder.feed(ByteBuffer.wrap("}".getBytes(StandardCharsets.UTF_8)))),
+          () -> assertThrows(NullPointerException.class, () -> reader.newDecoder(null))
+      );
+    }
+
+    @Test
+    public void decodersAreIndependent() {
+      var reader = Readers.recordReader();
+      var decoder1 = reader.newDecoder(Point.class);
+      var decoder2 = reader.newDecoder(Point.class);
+      decoder1.feed(ByteBuffer.wrap("{ \"x\": 1,".getBytes(StandardCharsets.UTF_8)));
+      decoder2.feed(ByteBuffer.wrap("{ \"x\": 3,".getBytes(StandardCharsets.UTF_8)));
+      assertEquals(new Point(5, 6), reader.parseJSON("{ \"x\": 5, \"y\": 6 }", Point.class));
+      decoder2.feed(ByteBuffer.wrap(" \"y\": 4 }".getBytes(StandardCharsets.UTF_8)));
+      decoder1.feed(ByteBuffer.wrap(" \"y\": 2 }".getBytes(StandardCharsets.UTF_8)));
+      assertAll(
+          () -> assertEquals(new Point(1, 2), decoder1.finish()),
+          () -> assertEquals(new Point(3, 4), decoder2.finish())
+      );
+    }
+  }  // end of Decoders
+
+  @Nested
+  public class Limits {
+    public record Tree(Tree child) { }
+    public record Point(int x, int y) { }
+
+    private static String tree(int depth) {
+      return "{ \"child\": ".repeat(depth - 1) + "{ \"child\": null }" + " }".repeat(depth - 1);
+    }
+
+    private static int depth(Tree tree) {
+      var depth = 0;
+      for (var node = tree; node != null; node = node.child()) {
+        depth++;
+      }
+      return depth;
+    }
+
+    @Test
+    public void parseDeeplyNested() {
+      var reader = Readers.recordReader(new JSONReader.Limits(100_000, Long.MAX_VALUE));
+      assertEquals(50_000, depth(reader.parseJSON(tree(50_000), Tree.class)));
+    }
+
+    @Test
+    public void parseMaxDepth() {
+      var reader = Readers.recordReader(new JSONReader.Limits(10, Long.MAX_VALUE));
+      assertAll(
+          () -> assertEquals(10, depth(reader.parseJSON(tree(10), Tree.class))),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON(tree(11), Tree.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseUtf8(tree(11).getBytes(StandardCharsets.UTF_8), Tree.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.readJSON(new StringReader(tree(11)), Tree.class))
+      );
+    }
+
+    @Test
+    public void parseDefaultMaxDepth() {
+      var reader = Readers.recordReader(JSONReader.Limits.DEFAULT);
+      assertAll(
+          () -> assertEquals(1_000, depth(reader.parseJSON(tree(1_000), Tree.class))),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON(tree(100_000), Tree.class))
+      );
+    }
+
+    @Test
+    public void parseMaxSize() {
+      var text = """
+          { "x": 1, "y": 2 }
+          """;
+      var reader = Readers.recordReader(new JSONReader.Limits(10, text.length() - 1));
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON(text, Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseUtf8(text.getBytes(StandardCharsets.UTF_8), Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.readJSON(new StringReader(text), Point.class)),
+          () -> assertEquals(new Point(1, 2), Readers.recordReader(new JSONReader.Limits(10, text.length())).parseJSON(text, Point.class))
+      );
+    }
+
+    @Test
+    public void decodeLimits() {
+      var reader = Readers.recordReader(new JSONReader.Limits(10, 100));
+      var deep = reader.newDecoder(Tree.class);
+      var large = reader.newDecoder(Point.class);
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> deep.feed(ByteBuffer.wrap(tree(11).getBytes(StandardCharsets.UTF_8)))),
+          () -> assertThrows(IllegalStateException.class, () -> large.feed(ByteBuffer.allocate(101)))
+      );
+    }
+
+    @Test
+    public void parseBinaryDeeplyNested() {
+      var bytes = new ByteArrayOutputStream();
+      for (var i = 0; i < 50_000; i++) {
+        bytes.write(BinaryJSON.START_OBJECT);
+        bytes.write(BinaryJSON.STRING);
+        bytes.write(5);
+        bytes.writeBytes("child".getBytes(StandardCharsets.UTF_8));
+      }
+      bytes.write(BinaryJSON.NULL);
+      for (var i = 0; i < 50_000; i++) {
+        bytes.write(BinaryJSON.END_OBJECT);
+      }
+      var reader = Readers.recordReader(new JSONReader.Limits(100_000, Long.MAX_VALUE));
+      assertEquals(50_000, depth(reader.parseBinary(bytes.toByteArray(), Tree.class)));
+    }
+
+    @Test
+    public void parseBinaryLimits() {
+      var writer = new JSONWriter();
+      var reader = Readers.recordReader(new JSONReader.Limits(10, 100));
+      var deep = writer.toBinary(new Tree(new Tree(new Tree(null))));
+      assertAll(
+          () -> assertEquals(3, depth(Readers.recordReader(new JSONReader.Limits(3, 100)).parseBinary(deep, Tree.class))),
+          () -> assertThrows(IllegalStateException.class, () -> Readers.recordReader(new JSONReader.Limits(2, 100)).parseBinary(deep, Tree.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(new byte[101], Tree.class))
+      );
+    }
+
+    @Test
+    public void trailingContent() throws IOException {
+      var reader = Readers.recordReader();
+      var text = "{ \"x\": 1, \"y\": 2 } garbage";
+      var bytes = text.getBytes(StandardCharsets.UTF_8);
+      var binary = Arrays.copyOf(new JSONWriter().toBinary(new Point(1, 2)), 20);
+      var path = Files.createTempFile("trailing", ".json");
+      try {
+        Files.writeString(path, text);
+        assertAll(
+            () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON(text, Point.class)),
+            () -> assertThrows(IllegalStateException.class, () -> reader.readJSON(new StringReader(text), Point.class)),
+            () -> assertThrows(IllegalStateException.class, () -> reader.parseUtf8(bytes, Point.class)),
+            () -> assertThrows(IllegalStateException.class, () -> reader.readJSON(path, Point.class)),
+            () -> assertThrows(IllegalStateException.class, () -> {
+              var decoder = reader.newDecoder(Point.class);
+              decoder.feed(ByteBuffer.wrap(bytes));
+              decoder.finish();
+            }),
+            () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(binary, Point.class))
+        );
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void invalidLimits() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> new JSONReader.Limits(0, 100)),
+          () -> assertThrows(IllegalArgumentException.class, () -> new JSONReader.Limits(10, -1)),
+          () -> assertThrows(NullPointerException.class, () -> new JSONReader(null))
+      );
+    }
+  }  // end of Limits
+}
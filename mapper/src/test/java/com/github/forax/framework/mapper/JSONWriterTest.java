@@ -4,13 +4,42 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.MonthDay;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.joining;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -251,4 +280,574 @@ public class JSONWriterTest {
     }
 
   }  // end of Q7
+
+
+  @Nested
+  public class Streaming {
+    @Test
+    public void writeJSONAppendable() {
+      var writer = new JSONWriter();
+      var builder = new StringBuilder("car: ");
+      writer.writeJSON(new Car("Marty"), builder);
+      assertEquals("""
+          car: {"owner": "Marty"}\
+          """, builder.toString());
+    }
+
+    @Test
+    public void writeJSONWriter() {
+      record Person(String name, Car car) { }
+      var writer = new JSONWriter();
+      var stringWriter = new StringWriter();
+      writer.writeJSON(new Person("Doc", new Car("Marty")), stringWriter);
+      assertEquals("""
+          {"name": "Doc", "car": {"owner": "Marty"}}\
+          """, stringWriter.toString());
+    }
+
+    @Test
+    public void writeJSONOutputStream() {
+      record Values(String text, int small, long big, double real) { }
+      var writer = new JSONWriter();
+      var outputStream = new ByteArrayOutputStream();
+      writer.writeJSON(new Values("Zoé \uD83D\uDE00", -42, Long.MIN_VALUE, 2.5), outputStream);
+      assertEquals("""
+          {"text": "Zoé \uD83D\uDE00", "small": -42, "big": -9223372036854775808, "real": 2.5}\
+          """, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeJSONPrimitiveProperties() {
+      record Primitives(boolean z, int i, long j, float f, double d, Integer boxed) { }
+      var writer = new JSONWriter();
+      var json = writer.toJSON(new Primitives(true, 3, 4L, 5.5f, 6.25, 7));
+      assertEquals("""
+          {"z": true, "i": 3, "j": 4, "f": 5.5, "d": 6.25, "boxed": 7}\
+          """, json);
+    }
+
+    @Test
+    public void writeJSONGetterException() {
+      class Broken {
+        public String getValue() {
+          throw new UnsupportedOperationException();
+        }
+      }
+      var writer = new JSONWriter();
+      assertThrows(UnsupportedOperationException.class, () -> writer.toJSON(new Broken()));
+    }
+
+    @Test
+    public void writeJSONOutputStreamLargerThanBuffer() {
+      record Text(String value) { }
+      var writer = new JSONWriter();
+      var outputStream = new ByteArrayOutputStream();
+      var value = "x".repeat(100_000);
+      writer.writeJSON(new Text(value), outputStream);
+      assertEquals("{\"value\": \"" + value + "\"}", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeJSONPreconditions() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> writer.writeJSON("foo", (Appendable) null)),
+          () -> assertThrows(NullPointerException.class, () -> writer.writeJSON("foo", (OutputStream) null))
+      );
+    }
+  }  // end of Streaming
+
+
+  @Nested
+  public class GeneratedSerializers {
+    @Test
+    public void toJSONWithAClass() {
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+      var json = writer.toJSON(new Person("Bob", "Hunky"));
+      assertEquals("""
+          {"first-name": "Bob", "last-name": "Hunky"}\
+          """, json);
+    }
+
+    @Test
+    public void toJSONWithARecord() {
+      record Primitives(boolean z, int i, long j, float f, double d, String s, Car car) { }
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+      var json = writer.toJSON(new Primitives(true, 3, 4L, 5.5f, 6.25, "foo", new Car("Marty")));
+      assertEquals("""
+          {"z": true, "i": 3, "j": 4, "f": 5.5, "d": 6.25, "s": "foo", "car": {"owner": "Marty"}}\
+          """, json);
+    }
+
+    @Test
+    public void toJSONEmptyRecord() {
+      record Empty() { }
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+      assertEquals("{}", writer.toJSON(new Empty()));
+    }
+
+    @Test
+    public void toJSONWithConfigure() {
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+      writer.configure(MonthDay.class, monthDay -> writer.toJSON(monthDay.getMonth() + "-" + monthDay.getDayOfMonth()));
+      var json = writer.toJSON(new PersonInfo(MonthDay.of(4, 17), new AddressInfo()));
+      assertEquals("""
+          {"birth-day": "APRIL-17", "address": {"international": false}}\
+          """, json);
+    }
+
+    @Test
+    public void writeJSONOutputStream() {
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+      var outputStream = new ByteArrayOutputStream();
+      writer.writeJSON(new Alien("Zoé", "Mars"), outputStream);
+      var json = outputStream.toString(StandardCharsets.UTF_8);
+      assertTrue(json.equals("{\"name\": \"Zoé\", \"planet\": \"Mars\"}") || json.equals("{\"planet\": \"Mars\", \"name\": \"Zoé\"}"), json);
+    }
+
+    @Test
+    public void toJSONGetterException() {
+      class Broken {
+        public int getValue() {
+          throw new UnsupportedOperationException();
+        }
+      }
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+      assertThrows(UnsupportedOperationException.class, () -> writer.toJSON(new Broken()));
+    }
+  }  // end of GeneratedSerializers
+
+
+  @Nested
+  public class ParallelLists {
+    public record Point(int x, String label) { }
+
+    private static List<Point> points(int count) {
+      return IntStream.range(0, count).mapToObj(i -> new Point(i, "p" + i)).toList();
+    }
+
+    @Test
+    public void toJSONList() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("[]", writer.toJSON(List.of())),
+          () -> assertEquals("[1, \"foo\", null]", writer.toJSON(Arrays.asList(1, "foo", null))),
+          () -> assertEquals("[[1, 2], [3]]", writer.toJSON(List.of(List.of(1, 2), List.of(3)))),
+          () -> assertEquals("[{\"x\": 1, \"label\": \"a\"}]", writer.toJSON(new Point[] { new Point(1, "a") }))
+      );
+    }
+
+    @Test
+    public void toJSONLargeListParallel() {
+      var points = points(100_000);
+      var expected = new JSONWriter().toJSON(points);
+      var writer = new JSONWriter(JSONWriter.Feature.PARALLEL_LISTS);
+      assertAll(
+          () -> assertEquals(expected, writer.toJSON(points)),
+          () -> assertEquals(expected, writer.toJSON(points.toArray(Point[]::new))),
+          () -> assertEquals(expected, writer.toJSON(new LinkedList<>(points)))
+      );
+    }
+
+    @Test
+    public void toJSONLargeNestedListParallel() {
+      var lists = IntStream.range(0, 3).mapToObj(i -> points(20_000 + i)).toList();
+      var expected = new JSONWriter().toJSON(lists);
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS, JSONWriter.Feature.PARALLEL_LISTS);
+      assertEquals(expected, writer.toJSON(lists));
+    }
+
+    @Test
+    public void writeJSONLargeListParallelOutputStream() {
+      var points = IntStream.range(0, 50_000).mapToObj(i -> new Point(i, "\u00e9t\u00e9 " + i)).toList();
+      var expected = new JSONWriter().toJSON(points);
+      var writer = new JSONWriter(JSONWriter.Feature.PARALLEL_LISTS);
+      var outputStream = new ByteArrayOutputStream();
+      writer.writeJSON(points, outputStream);
+      assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void toJSONLargeListParallelWithConfigure() {
+      var writer = new JSONWriter(JSONWriter.Feature.PARALLEL_LISTS);
+      writer.configure(MonthDay.class, monthDay -> "\"" + monthDay.getMonthValue() + "-" + monthDay.getDayOfMonth() + "\"");
+      var days = IntStream.range(0, 30_000).mapToObj(i -> MonthDay.of(1 + i % 12, 1 + i % 28)).toList();
+      var expected = days.stream()
+          .map(day -> "\"" + day.getMonthValue() + "-" + day.getDayOfMonth() + "\"")
+          .collect(joining(", ", "[", "]"));
+      assertEquals(expected, writer.toJSON(days));
+    }
+  }  // end of ParallelLists
+
+
+  @Nested
+  public class ConcurrentConfiguration {
+    @Test
+    public void configureConcurrentlyOnlyOneWins() throws InterruptedException {
+      var writer = new JSONWriter();
+      var successes = new AtomicInteger();
+      var failures = new AtomicInteger();
+      var threads = IntStream.range(0, 16)
+          .mapToObj(i -> Thread.ofVirtual().start(() -> {
+            try {
+              writer.configure(MonthDay.class, __ -> "\"" + i + "\"");
+              successes.incrementAndGet();
+            } catch (IllegalStateException e) {
+              failures.incrementAndGet();
+            }
+          }))
+          .toList();
+      for (var thread : threads) {
+        thread.join();
+      }
+      assertAll(
+          () -> assertEquals(1, successes.get()),
+          () -> assertEquals(15, failures.get())
+      );
+    }
+
+    @Test
+    public void configureDifferentTypesConcurrently() throws InterruptedException {
+      var writer = new JSONWriter();
+      var types = List.<Class<?>>of(MonthDay.class, LocalTime.class, LocalDateTime.class, Timestamp.class);
+      var threads = types.stream()
+          .map(type -> Thread.ofVirtual().start(() -> writer.configure(type, __ -> "\"" + type.getSimpleName() + "\"")))
+          .toList();
+      for (var thread : threads) {
+        thread.join();
+      }
+      assertAll(
+          () -> assertEquals("\"MonthDay\"", writer.toJSON(MonthDay.of(1, 1))),
+          () -> assertEquals("\"LocalTime\"", writer.toJSON(LocalTime.NOON)),
+          () -> assertEquals("\"LocalDateTime\"", writer.toJSON(LocalDateTime.of(2024, 1, 1, 0, 0))),
+          () -> assertEquals("\"Timestamp\"", writer.toJSON(new Timestamp(0)))
+      );
+    }
+
+    @Test
+    public void toJSONFromManyThreads() throws InterruptedException {
+      var writer = new JSONWriter();
+      writer.configure(MonthDay.class, monthDay -> "\"" + monthDay.getMonthValue() + "-" + monthDay.getDayOfMonth() + "\"");
+      var results = new ConcurrentLinkedQueue<String>();
+      var threads = IntStream.range(0, 1_000)
+          .mapToObj(i -> Thread.ofVirtual().start(() -> results.add(writer.toJSON(new PersonInfo(MonthDay.of(4, 17), new AddressInfo())))))
+          .toList();
+      for (var thread : threads) {
+        thread.join();
+      }
+      assertEquals(Set.of("""
+          {"birth-day": "4-17", "address": {"international": false}}\
+          """), new HashSet<>(results));
+    }
+  }  // end of ConcurrentConfiguration
+
+
+  @Nested
+  public class Builtins {
+    public enum Color {
+      RED, GREEN {
+        @Override
+        public String toString() {
+          return "green";
+        }
+      }
+    }
+
+    public record Order(List<String> items, Map<String, Integer> quantities, Optional<String> comment, Color color, LocalDate date) { }
+
+    @Test
+    public void toJSONCollections() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("[1, 2, 3]", writer.toJSON(new TreeSet<>(Set.of(3, 1, 2)))),
+          () -> assertEquals("[\"a\", \"b\"]", writer.toJSON(new ArrayDeque<>(List.of("a", "b")))),
+          () -> assertEquals("[]", writer.toJSON(Set.of()))
+      );
+    }
+
+    @Test
+    public void toJSONMaps() {
+      var writer = new JSONWriter();
+      var map = new LinkedHashMap<Object, Object>();
+      map.put("a", 1);
+      map.put("b", List.of(true));
+      map.put(Color.RED, null);
+      assertAll(
+          () -> assertEquals("{\"a\": 1, \"b\": [true], \"RED\": null}", writer.toJSON(map)),
+          () -> assertEquals("{}", writer.toJSON(Map.of())),
+          () -> assertThrows(IllegalStateException.class, () -> writer.toJSON(Map.of(1, 2)))
+      );
+    }
+
+    @Test
+    public void toJSONPrimitiveArrays() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("[true, false]", writer.toJSON(new boolean[] { true, false })),
+          () -> assertEquals("[1, -2]", writer.toJSON(new byte[] { 1, -2 })),
+          () -> assertEquals("[3, 4]", writer.toJSON(new short[] { 3, 4 })),
+          () -> assertEquals("[5, 6]", writer.toJSON(new int[] { 5, 6 })),
+          () -> assertEquals("[7, 8000000000]", writer.toJSON(new long[] { 7, 8_000_000_000L })),
+          () -> assertEquals("[1.5, 2.0]", writer.toJSON(new float[] { 1.5f, 2 })),
+          () -> assertEquals("[3.25]", writer.toJSON(new double[] { 3.25 })),
+          () -> assertEquals("\"foo\"", writer.toJSON(new char[] { 'f', 'o', 'o' })),
+          () -> assertEquals("[]", writer.toJSON(new int[0])),
+          () -> assertEquals("[[1], null]", writer.toJSON(new int[][] { { 1 }, null }))
+      );
+    }
+
+    @Test
+    public void toJSONOptionals() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("\"foo\"", writer.toJSON(Optional.of("foo"))),
+          () -> assertEquals("null", writer.toJSON(Optional.empty())),
+          () -> assertEquals("3", writer.toJSON(OptionalInt.of(3))),
+          () -> assertEquals("null", writer.toJSON(OptionalInt.empty())),
+          () -> assertEquals("4", writer.toJSON(OptionalLong.of(4))),
+          () -> assertEquals("null", writer.toJSON(OptionalLong.empty())),
+          () -> assertEquals("5.5", writer.toJSON(OptionalDouble.of(5.5))),
+          () -> assertEquals("null", writer.toJSON(OptionalDouble.empty()))
+      );
+    }
+
+    @Test
+    public void toJSONEnumsAndTime() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("\"RED\"", writer.toJSON(Color.RED)),
+          () -> assertEquals("\"GREEN\"", writer.toJSON(Color.GREEN)),
+          () -> assertEquals("\"MONDAY\"", writer.toJSON(DayOfWeek.MONDAY)),
+          () -> assertEquals("\"2024-02-29\"", writer.toJSON(LocalDate.of(2024, 2, 29))),
+          () -> assertEquals("\"2024-02-29T10:15:30\"", writer.toJSON(LocalDateTime.of(2024, 2, 29, 10, 15, 30))),
+          () -> assertEquals("\"1970-01-01T00:00:00Z\"", writer.toJSON(Instant.EPOCH)),
+          () -> assertEquals("\"PT1H\"", writer.toJSON(Duration.ofHours(1))),
+          () -> assertEquals("\"--04-17\"", writer.toJSON(MonthDay.of(4, 17))),
+          () -> assertEquals("\"Europe/Paris\"", writer.toJSON(ZoneId.of("Europe/Paris")))
+      );
+    }
+
+    @Test
+    public void toJSONRecordWithBuiltins() {
+      var order = new Order(List.of("pen"), new TreeMap<>(Map.of("pen", 2)), Optional.empty(), Color.GREEN, LocalDate.of(2024, 1, 2));
+      var expected = """
+          {"items": ["pen"], "quantities": {"pen": 2}, "comment": null, "color": "GREEN", "date": "2024-01-02"}\
+          """;
+      assertAll(
+          () -> assertEquals(expected, new JSONWriter().toJSON(order)),
+          () -> assertEquals(expected, new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS).toJSON(order))
+      );
+    }
+
+    @Test
+    public void configureHasPriorityOverBuiltins() {
+      var writer = new JSONWriter();
+      writer.configure(LocalDate.class, date -> "\"" + date.getYear() + "\"");
+      assertEquals("[\"2024\"]", writer.toJSON(List.of(LocalDate.of(2024, 1, 2))));
+    }
+  }  // end of Builtins
+
+
+  @Nested
+  public class Escaping {
+    public record Message(String text) { }
+
+    @Test
+    public void toJSONEscapedStrings() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("\"a\\\"b\"", writer.toJSON("a\"b")),
+          () -> assertEquals("\"a\\\\b\"", writer.toJSON("a\\b")),
+          () -> assertEquals("\"\\b\\f\\n\\r\\t\"", writer.toJSON("\b\f\n\r\t")),
+          () -> assertEquals("\"\\u0000\\u001f\"", writer.toJSON("\u0000\u001f")),
+          () -> assertEquals("\"/\u00e9\uD83D\uDE00\"", writer.toJSON("/\u00e9\uD83D\uDE00")),
+          () -> assertEquals("\"\"", writer.toJSON("")),
+          () -> assertEquals("\"no escape\"", writer.toJSON("no escape"))
+      );
+    }
+
+    @Test
+    public void toJSONEscapedStringsAtEveryPositionOfAWord() {
+      // a long string is scanned 4 chars at a time by chunks of 256 chars
+      var writer = new JSONWriter();
+      var escapes = Map.of('"', "\\\"", '\\', "\\\\", '\n', "\\n", '\u0001', "\\u0001", '\u001f', "\\u001f",
+          '\u2222', "\u2222", '\u225c', "\u225c", '\u0120', "\u0120");
+      for (var length : List.of(16, 17, 18, 19, 20, 31, 255, 256, 257, 260)) {
+        for (var position = 0; position < length; position++) {
+          for (var escape : escapes.entrySet()) {
+            var text = "a".repeat(position) + escape.getKey() + "b".repeat(length - position - 1);
+            var expected = "\"" + "a".repeat(position) + escape.getValue() + "b".repeat(length - position - 1) + "\"";
+            var outputStream = new ByteArrayOutputStream();
+            writer.writeJSON(text, outputStream);
+            assertAll(
+                () -> assertEquals(expected, writer.toJSON(text), text),
+                () -> assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8), text)
+            );
+          }
+        }
+      }
+    }
+
+    @Test
+    public void toJSONEscapedKeys() {
+      var writer = new JSONWriter();
+      record Quoted(@JSONProperty("a\"b") int value) { }
+      assertAll(
+          () -> assertEquals("{\"a\\\"b\": 1}", writer.toJSON(new Quoted(1))),
+          () -> assertEquals("{\"a\\nb\": 2}", writer.toJSON(Map.of("a\nb", 2)))
+      );
+    }
+
+    @Test
+    public void writeJSONEscapedStringOutputStream() {
+      var writer = new JSONWriter();
+      var outputStream = new ByteArrayOutputStream();
+      writer.writeJSON(new Message("\u00e9t\u00e9\n\"\uD83D\uDE00\""), outputStream);
+      assertEquals("{\"text\": \"\u00e9t\u00e9\\n\\\"\uD83D\uDE00\\\"\"}", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void roundTrip() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+      var message = new Message("quote \" backslash \\ tab \t control \u0001 unicode \u00e9\uD83D\uDE00");
+      assertEquals(message, reader.parseJSON(writer.toJSON(message), Message.class));
+    }
+  }  // end of Escaping
+
+
+  @Nested
+  public class Numbers {
+    public record Values(int i, long l, float f, double d) { }
+
+    @Test
+    public void toJSONShortestDoubles() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("[0.1, 0.30000000000000004, 1.0E23, -0.0, 4.9E-324]", writer.toJSON(new double[] { 0.1, 0.1 + 0.2, 1e23, -0.0, Double.MIN_VALUE })),
+          () -> assertEquals("[0.1, 3.4028235E38]", writer.toJSON(new float[] { 0.1f, Float.MAX_VALUE }))
+      );
+    }
+
+    @Test
+    public void writeJSONNumbersOutputStream() {
+      var writer = new JSONWriter();
+      var values = new Values(Integer.MIN_VALUE, Long.MAX_VALUE, 0.1f, 0.1 + 0.2);
+      var outputStream = new ByteArrayOutputStream();
+      writer.writeJSON(values, outputStream);
+      assertEquals(writer.toJSON(values), outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void roundTrip() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+      var values = List.of(
+          new Values(-1, Long.MIN_VALUE, -1.5f, -2.5e-300),
+          new Values(Integer.MAX_VALUE, 1L << 40, Float.MIN_VALUE, Double.MAX_VALUE),
+          new Values(0, 0, 1e10f, 1 / 3.0));
+      for (var value : values) {
+        assertEquals(value, reader.parseJSON(writer.toJSON(value), Values.class));
+      }
+    }
+  }  // end of Numbers
+
+
+  @Nested
+  public class Binary {
+    public record Point(int x, int y) { }
+    public record Accents(int été, String naïve, int ascii) { }
+    public record Shape(String name, boolean filled, long id, float ratio, double area, Point origin, String comment) { }
+
+    @Test
+    public void toBinaryEncoding() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertArrayEquals(new byte[] { 8, 3, 2, 3, 1, 5, 2, (byte) 0xC3, (byte) 0xA9, 0, 9 },
+              writer.toBinary(Arrays.asList(1, -1, "é", null))),
+          () -> assertArrayEquals(new byte[] { 6, 5, 1, 'x', 3, 2, 5, 1, 'y', 3, 4, 7 },
+              writer.toBinary(new Point(1, 2))),
+          () -> assertArrayEquals(new byte[] { 6, 5, 1, 'a', 2, 5, 1, 'b', 1, 7 },
+              writer.toBinary(new TreeMap<>(Map.of("a", true, "b", false))))
+      );
+    }
+
+    @Test
+    public void roundTripRecords() {
+      var writer = new JSONWriter();
+      var reader = Readers.recordReader();
+      var shapes = List.of(
+          new Shape("square", true, Long.MIN_VALUE, 0.1f, 0.1 + 0.2, new Point(-1, Integer.MAX_VALUE), null),
+          new Shape("Zoé \"😀\"\n\t", false, 1L << 40, Float.MAX_VALUE, -0.0, new Point(0, 0), "\u0000"),
+          new Shape("", true, 0, 0, Double.MIN_VALUE, null, "é".repeat(20_000)));
+      for (var shape : shapes) {
+        assertEquals(shape, reader.parseBinary(writer.toBinary(shape), Shape.class));
+      }
+    }
+
+    @Test
+    public void roundTripGeneratedSerializers() {
+      var writer = new JSONWriter(JSONWriter.Feature.GENERATED_SERIALIZERS);
+      var reader = Readers.recordReader();
+      var shape = new Shape("circle", true, 42, 1.5f, Math.PI, new Point(3, 4), "round");
+      assertEquals(shape, reader.parseBinary(writer.toBinary(shape), Shape.class));
+    }
+
+    @Test
+    public void roundTripPrimitiveArray() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var array = IntStream.range(-5_000, 5_000).toArray();
+      assertArrayEquals(array, (int[]) reader.parseBinary(writer.toBinary(array), int[].class));
+    }
+
+    @Test
+    public void roundTripNonASCIIKeys() {
+      var writer = new JSONWriter();
+      var reader = Readers.recordReader();
+      var accents = new Accents(1, "oui", 3);
+      assertEquals(accents, reader.parseBinary(writer.toBinary(accents), Accents.class));
+    }
+
+    @Test
+    public void configureIsTranscoded() {
+      var writer = new JSONWriter();
+      writer.configure(Point.class, point -> "{\"coordinates\": [" + point.x() + ", " + point.y() + ".5], \"valid\": true, \"label\": null}");
+      var expected = new LinkedHashMap<String, Object>();
+      expected.put("coordinates", List.of(1, 2.5));
+      expected.put("valid", true);
+      expected.put("label", null);
+      assertArrayEquals(writer.toBinary(List.of(expected)), writer.toBinary(List.of(new Point(1, 2))));
+    }
+
+    @Test
+    public void writeBinaryReadBinary() {
+      var writer = new JSONWriter();
+      var reader = Readers.recordReader();
+      var shape = new Shape("line", false, -1, -1f, -1, new Point(1, 1), "streamed");
+      var outputStream = new ByteArrayOutputStream();
+      writer.writeBinary(shape, outputStream);
+      assertAll(
+          () -> assertArrayEquals(writer.toBinary(shape), outputStream.toByteArray()),
+          () -> assertEquals(shape, reader.readBinary(new ByteArrayInputStream(outputStream.toByteArray()), Shape.class))
+      );
+    }
+
+    @Test
+    public void parseInvalidBinary() {
+      var reader = Readers.recordReader();
+      var bytes = new JSONWriter().toBinary(new Point(1, 2));
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(Arrays.copyOf(bytes, bytes.length - 1), Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(Arrays.copyOf(bytes, bytes.length + 1), Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(new byte[] { 6, 42, 7 }, Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(new byte[] { 6, 5, 100, 'x' }, Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(new byte[] { 3, 2 }, Point.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseBinary(new byte[0], Point.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseBinary(null, Point.class))
+      );
+    }
+  }  // end of Binary
 }
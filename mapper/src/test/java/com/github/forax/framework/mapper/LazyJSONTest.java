@@ -0,0 +1,198 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LazyJSONTest {
+  private static final String EVENT = """
+      {
+        "id": 1234567890123,
+        "type": "click",
+        "payload": {
+          "x": 12, "y": 45.5,
+          "tags": [ "a", "b", { "c": [] } ],
+          "valid": true,
+          "extra": null
+        },
+        "count": 3
+      }
+      """;
+
+  @Test
+  public void getProperties() {
+    var event = LazyJSON.parse(EVENT);
+    assertAll(
+        () -> assertTrue(event.isObject()),
+        () -> assertEquals(1234567890123L, event.get("id").orElseThrow().asLong()),
+        () -> assertEquals("click", event.get("type").orElseThrow().asString()),
+        () -> assertEquals(3, event.get("count").orElseThrow().asInt()),
+        () -> assertEquals(Optional.empty(), event.get("unknown"))
+    );
+  }
+
+  @Test
+  public void getNestedValues() {
+    var payload = LazyJSON.parse(EVENT).get("payload").orElseThrow();
+    var tags = payload.get("tags").orElseThrow();
+    assertAll(
+        () -> assertEquals(12, payload.get("x").orElseThrow().asInt()),
+        () -> assertEquals(45.5, payload.get("y").orElseThrow().asDouble()),
+        () -> assertTrue(payload.get("valid").orElseThrow().asBoolean()),
+        () -> assertTrue(payload.get("extra").orElseThrow().isNull()),
+        () -> assertTrue(tags.isArray()),
+        () -> assertEquals(3, tags.size()),
+        () -> assertEquals("b", tags.get(1).asString()),
+        () -> assertEquals(0, tags.get(2).get("c").orElseThrow().size())
+    );
+  }
+
+  @Test
+  public void keysAndSize() {
+    var event = LazyJSON.parse(EVENT);
+    assertAll(
+        () -> assertEquals(List.of("id", "type", "payload", "count"), event.keys()),
+        () -> assertEquals(4, event.size()),
+        () -> assertEquals(0, LazyJSON.parse("{}").size()),
+        () -> assertEquals(0, LazyJSON.parse("[]").size())
+    );
+  }
+
+  @Test
+  public void text() {
+    var event = LazyJSON.parse(EVENT);
+    var tags = event.get("payload").orElseThrow().get("tags").orElseThrow();
+    assertAll(
+        () -> assertEquals("[ \"a\", \"b\", { \"c\": [] } ]", tags.text()),
+        () -> assertEquals("\"a\"", tags.get(0).text()),
+        () -> assertEquals("3", event.get("count").orElseThrow().text())
+    );
+  }
+
+  public record Point(int x, double y) { }
+
+  @Test
+  public void bindASubtree() {
+    var reader = new JSONReader();
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+    var payload = LazyJSON.parse("""
+        { "name": "p", "point": { "x": 1, "y": 2.5 } }
+        """).get("point").orElseThrow();
+    assertEquals(new Point(1, 2.5), reader.parseJSON(payload.text(), Point.class));
+  }
+
+  @Test
+  public void invalidAccesses() {
+    var event = LazyJSON.parse(EVENT);
+    var tags = event.get("payload").orElseThrow().get("tags").orElseThrow();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> event.get(0)),
+        () -> assertThrows(IllegalStateException.class, () -> tags.get("a")),
+        () -> assertThrows(IllegalStateException.class, () -> event.get("type").orElseThrow().asInt()),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> tags.get(3)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> tags.get(-1)),
+        () -> assertFalse(event.isArray())
+    );
+  }
+
+  @Test
+  public void parseInvalidText() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> LazyJSON.parse("{ \"foo\": }")),
+        () -> assertThrows(IllegalStateException.class, () -> LazyJSON.parse("[ 1, 2")),
+        () -> assertThrows(IllegalStateException.class, () -> LazyJSON.parse("3")),
+        () -> assertThrows(NullPointerException.class, () -> LazyJSON.parse(null))
+    );
+  }
+
+  @Test
+  public void escapedStrings() {
+    var json = LazyJSON.parse("""
+        { "a\\"b": "c\\nd", "plain": "e" }
+        """);
+    assertAll(
+        () -> assertEquals(List.of("a\"b", "plain"), json.keys()),
+        () -> assertEquals("c\nd", json.get("a\"b").orElseThrow().asString()),
+        () -> assertEquals("\"c\\nd\"", json.get("a\"b").orElseThrow().text()),
+        () -> assertEquals("e", json.get("plain").orElseThrow().asString())
+    );
+  }
+
+  @Test
+  public void escapedKeysAreNotComparedWithTheText() {
+    var json = LazyJSON.parse("""
+        { "a\\"b": 1, "c\\u0064": 2 }
+        """);
+    assertAll(
+        () -> assertEquals(1, json.get("a\"b").orElseThrow().asInt()),
+        () -> assertEquals(Optional.empty(), json.get("a\\\"b")),
+        () -> assertEquals(2, json.get("cd").orElseThrow().asInt()),
+        () -> assertEquals(Optional.empty(), json.get("c\\u0064"))
+    );
+  }
+
+  @Test
+  public void numbers() {
+    var texts = List.of("0", "-1", "2147483648", "-9223372036854775808", "9223372036854775808",
+        "0.1", "-2.5e-3", "1e23", "9007199254740993.0", "123456789012345678901234567890.0", "1e-400");
+    var json = LazyJSON.parse(texts.stream().collect(joining(", ", "[", "]")));
+    for (var i = 0; i < texts.size(); i++) {
+      var text = texts.get(i);
+      assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)), Double.doubleToRawLongBits(json.get(i).asDouble()), text);
+    }
+    assertAll(
+        () -> assertEquals(-1, json.get(1).asInt()),
+        () -> assertEquals(2147483648L, json.get(2).asLong()),
+        () -> assertEquals(Long.MIN_VALUE, json.get(3).asLong()),
+        () -> assertThrows(NumberFormatException.class, () -> json.get(2).asInt()),
+        () -> assertThrows(IllegalStateException.class, () -> json.get(4).asLong())
+    );
+  }
+
+  @Test
+  public void parseDeeplyNested() {
+    var json = LazyJSON.parse("[{\"a\":".repeat(499) + "[]" + "}]".repeat(499));
+    var value = json;
+    for (var i = 0; i < 499; i++) {
+      value = value.get(0).get("a").orElseThrow();
+    }
+    var array = value;
+    assertAll(
+        () -> assertTrue(array.isArray()),
+        () -> assertEquals(0, array.size())
+    );
+  }
+
+  @Test
+  public void parseTooDeeplyNested() {
+    assertThrows(IllegalStateException.class, () -> LazyJSON.parse("[".repeat(100_000) + "]".repeat(100_000)));
+  }
+
+  @Test
+  public void parseWithLimits() {
+    var text = "[".repeat(50_000) + "]".repeat(50_000);
+    assertAll(
+        () -> assertEquals(1, LazyJSON.parse(text, new JSONReader.Limits(50_000, Long.MAX_VALUE)).size()),
+        () -> assertThrows(IllegalStateException.class, () -> LazyJSON.parse(text, new JSONReader.Limits(49_999, Long.MAX_VALUE))),
+        () -> assertThrows(IllegalStateException.class, () -> LazyJSON.parse(text, new JSONReader.Limits(50_000, text.length() - 1))),
+        () -> assertThrows(NullPointerException.class, () -> LazyJSON.parse(text, null))
+    );
+  }
+
+  @Test
+  public void parseTrailingContent() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> LazyJSON.parse("{ \"a\": 1 } garbage")),
+        () -> assertThrows(IllegalStateException.class, () -> LazyJSON.parse("[ 1 ] [ 2 ]")),
+        () -> assertEquals(1, LazyJSON.parse("[ 1 ]\n").size())
+    );
+  }
+}
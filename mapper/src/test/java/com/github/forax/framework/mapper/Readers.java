@@ -0,0 +1,33 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The readers used by the tests of the features that are not exercises,
+ * they decode the records and the lists of the test types.
+ */
+final class Readers {
+  private Readers() {
+    throw new AssertionError();
+  }
+
+  static JSONReader recordReader() {
+    return recordReader(JSONReader.Limits.DEFAULT);
+  }
+
+  static JSONReader recordReader(JSONReader.Limits limits) {
+    var reader = new JSONReader(limits);
+    reader.addTypeMatcher(type -> Optional.of(Utils.erase(type)).filter(Class::isRecord).map(JSONReader.ObjectBuilder::record));
+    reader.addTypeMatcher(listTypeMatcher());
+    return reader;
+  }
+
+  static JSONReader.TypeMatcher listTypeMatcher() {
+    return type -> Optional.of(type)
+        .flatMap(t -> t instanceof ParameterizedType parameterizedType? Optional.of(parameterizedType): Optional.empty())
+        .filter(t -> t.getRawType() == List.class)
+        .map(t -> JSONReader.ObjectBuilder.list(t.getActualTypeArguments()[0]));
+  }
+}
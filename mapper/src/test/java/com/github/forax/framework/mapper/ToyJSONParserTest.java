@@ -3,18 +3,60 @@ package com.github.forax.framework.mapper;
 import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
 
 class ToyJSONParserTest {
   private static Object asJava(String text) {
+    return asJava(visitor -> ToyJSONParser.parse(text, visitor));
+  }
+
+  private static Object asJavaUtf8(String text) {
+    return asJavaUtf8(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Object asJavaUtf8(byte[] bytes) {
+    return asJava(visitor -> ToyJSONParser.parse(MemorySegment.ofArray(bytes), visitor));
+  }
+
+  /**
+   * Pushes the bytes of the text by chunks of chunkSize bytes.
+   */
+  private static Object asJavaPush(String text, int chunkSize) {
+    var bytes = text.getBytes(StandardCharsets.UTF_8);
+    return asJava(visitor -> {
+      var parser = new ToyJSONParser.PushParser(visitor);
+      for (var i = 0; i < bytes.length; i += chunkSize) {
+        var buffer = ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i));
+        parser.feed(buffer);
+        assertEquals(0, buffer.remaining());
+      }
+      parser.finish();
+    });
+  }
+
+  private static Object asJava(Consumer<? super JSONVisitor> parsing) {
     var visitor = new JSONVisitor() {
       private Object result;
       private final ArrayDeque<Object> stack = new ArrayDeque<>();
@@ -64,7 +106,7 @@ class ToyJSONParserTest {
         }
       }
     };
-    ToyJSONParser.parse(text, visitor);
+    parsing.accept(visitor);
     return visitor.result;
   }
 
@@ -143,4 +185,808 @@ class ToyJSONParserTest {
         [ 13.4, null ]
         """));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void parseInvalidTexts() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJava("{ \"foo\": \"bar }")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("{ \"foo\": nul }")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ 1, @ ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ 1, 2"))
+    );
+  }
+
+  @Test
+  public void parseDuringAParsing() {
+    var values = new ArrayList<Object>();
+    ToyJSONParser.parse("""
+        [ "[ 1, 2 ]", "{ \\"a\\": 3 }" ]
+        """, new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        values.add(asJava((String) value));
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    assertEquals(List.of(List.of(1, 2), Map.of("a", 3)), values);
+  }
+
+  @Test
+  public void parseAfterAnError() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJava("{ \"a\": [ 1, }")),
+        () -> assertEquals(Map.of("a", List.of(1)), asJava("{ \"a\": [ 1 ] }"))
+    );
+  }
+
+  @Test
+  public void parsePrimitiveValues() {
+    var values = new ArrayList<String>();
+    ToyJSONParser.parse("""
+        [ 12, 3.5, true, false, "foo", null ]
+        """, new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        values.add("object " + value);
+      }
+      @Override
+      public void value(String key, int value) {
+        values.add("int " + value);
+      }
+      @Override
+      public void value(String key, double value) {
+        values.add("double " + value);
+      }
+      @Override
+      public void value(String key, boolean value) {
+        values.add("boolean " + value);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    assertEquals(List.of("int 12", "double 3.5", "boolean true", "boolean false", "object foo", "object null"), values);
+  }
+
+  @Test
+  public void skipRejectedValues() {
+    var events = new ArrayList<String>();
+    ToyJSONParser.parse("""
+        { "a": 1, "skip": { "b": [ "}", { "c": "]" } ], "d": {} }, "e": [ true ], "skip": "foo", "f": null }
+        """, new JSONVisitor() {
+      @Override
+      public boolean accept(String key) {
+        return !key.equals("skip");
+      }
+      @Override
+      public void value(String key, Object value) {
+        events.add(key + "=" + value);
+      }
+      @Override
+      public void startObject(String key) {
+        events.add("{");
+      }
+      @Override
+      public void endObject(String key) {
+        events.add("}");
+      }
+      @Override
+      public void startArray(String key) {
+        events.add(key + "=[");
+      }
+      @Override
+      public void endArray(String key) {
+        events.add("]");
+      }
+    });
+    assertEquals(List.of("{", "a=1", "e=[", "null=true", "]", "f=null", "}"), events);
+  }
+
+  @Test
+  public void skipLargeRejectedValue() {
+    var large = IntStream.range(0, 10_000).mapToObj(i -> "{ \"v\": \"" + i + "\" }").collect(joining(", ", "[", "]"));
+    var values = new ArrayList<Object>();
+    ToyJSONParser.parse(new StringReader("{ \"skip\": " + large + ", \"keep\": 42 }"), new JSONVisitor() {
+      @Override
+      public boolean accept(String key) {
+        return key.equals("keep");
+      }
+      @Override
+      public void value(String key, Object value) {
+        values.add(value);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {
+        throw new AssertionError();
+      }
+      @Override
+      public void endArray(String key) {
+        throw new AssertionError();
+      }
+    });
+    assertEquals(List.of(42), values);
+  }
+
+  @Test
+  public void skipUnterminatedValue() {
+    assertThrows(IllegalStateException.class, () -> ToyJSONParser.parse("{ \"skip\": [ 1, 2 }", new JSONVisitor() {
+      @Override
+      public boolean accept(String key) {
+        return false;
+      }
+      @Override
+      public void value(String key, Object value) {}
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    }));
+  }
+
+  @Test
+  public void parseEscapedStrings() {
+    assertAll(
+        () -> assertEquals(Map.of("a\"b", "c\\d"), asJava("""
+            { "a\\"b": "c\\\\d" }
+            """)),
+        () -> assertEquals(List.of("/\b\f\n\r\t"), asJava("""
+            [ "\\/\\b\\f\\n\\r\\t" ]
+            """)),
+        () -> assertEquals(List.of("\u00e9\u0001"), asJava("""
+            [ "\\u00E9\\u0001" ]
+            """)),
+        () -> assertEquals(List.of("\uD83D\uDE00"), asJava("""
+            [ "\\ud83d\\ude00" ]
+            """)),
+        () -> assertEquals(List.of("\"", "\\"), asJava("""
+            [ "\\"", "\\\\" ]
+            """))
+    );
+  }
+
+  @Test
+  public void parseInvalidEscapedStrings() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ \"\\x\" ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ \"\\u12\" ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ \"\\u12G4\" ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ \"\\\" ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ \"a\nb\" ]"))
+    );
+  }
+
+  @Test
+  public void skipEscapedStrings() {
+    var values = new ArrayList<Object>();
+    ToyJSONParser.parse("""
+        { "skip": [ "\\"]", { "\\\\": "}" } ], "keep": 1 }
+        """, new JSONVisitor() {
+      @Override
+      public boolean accept(String key) {
+        return key.equals("keep");
+      }
+      @Override
+      public void value(String key, Object value) {
+        values.add(value);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    assertEquals(List.of(1), values);
+  }
+
+  @Test
+  public void parseEscapedStringAcrossBuffers() {
+    var text = "x".repeat(10_000) + "\\\"" + "y".repeat(10_000);
+    var values = new ArrayList<Object>();
+    ToyJSONParser.parse(new StringReader("[ \"" + text + "\" ]"), new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        values.add(value);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    assertEquals(List.of("x".repeat(10_000) + "\"" + "y".repeat(10_000)), values);
+  }
+
+  @Test
+  public void parseNumbers() {
+    assertEquals(List.of(0, -1, 2147483647, -2147483648, 2147483648L, -9223372036854775808L, 9223372036854775807L), asJava("""
+        [ 0, -1, 2147483647, -2147483648, 2147483648, -9223372036854775808, 9223372036854775807 ]
+        """));
+  }
+
+  @Test
+  public void parseDoubles() {
+    var texts = List.of("0.0", "-0.0", "1.5", "-2.25", "0.1", "3.141592653589793", "1e10", "1E+2", "-1.5e-3",
+        "123456789012345678901234567890.0", "1.7976931348623157e308", "4.9e-324", "2.2250738585072014E-308",
+        "0.30000000000000004", "1e23", "9007199254740993.0", "1e-400", "0.000001", "100e-2");
+    var expected = texts.stream().map(Double::parseDouble).toList();
+    assertEquals(expected, asJava(texts.stream().collect(joining(", ", "[", "]"))));
+  }
+
+  @Test
+  public void parseInvalidNumbers() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ - ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ 01 ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ 1. ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ .5 ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ 1e ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ 1e+ ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJava("[ 1-2 ]"))
+    );
+  }
+
+  @Test
+  public void parseIntegersOutOfLongRange() {
+    var text = "[ 9223372036854775808, -9223372036854775809, 12345678901234567890123 ]";
+    var expected = List.of(9223372036854775808.0, -9223372036854775809.0, 12345678901234567890123.0);
+    assertAll(
+        () -> assertEquals(expected, asJava(text)),
+        () -> assertEquals(expected, asJavaUtf8(text)),
+        () -> assertEquals(expected, asJavaPush(text, 5))
+    );
+  }
+
+  @Test
+  public void keyTableReturnsCanonicalKeys() {
+    var name = new String("name");
+    var age = new String("age");
+    var keyTable = KeyTable.of(Set.of(name, age));
+    var keys = new ArrayList<String>();
+    ToyJSONParser.parse("""
+        { "name": "Bob", "age": 42, "unknown": true, "n\\u0061me": null }
+        """, new JSONVisitor() {
+      @Override
+      public KeyTable keyTable() {
+        return keyTable;
+      }
+      @Override
+      public void value(String key, Object value) {
+        keys.add(key);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    assertAll(
+        () -> assertEquals(List.of("name", "age", "unknown", "name"), keys),
+        () -> assertSame(name, keys.get(0)),
+        () -> assertSame(age, keys.get(1))
+    );
+  }
+
+  @Test
+  public void keyTableFind() {
+    var names = IntStream.range(0, 200).mapToObj(i -> "property" + i).collect(toSet());
+    names.addAll(Set.of("Aa", "BB", "", "a", "b"));  // "Aa" and "BB" have the same String hash code
+    var keyTable = KeyTable.of(names);
+    var index = 0;
+    for (var name : names) {  // the index of a key is its position in the iteration order
+      var buffer = ("  " + name + "  ").toCharArray();
+      assertEquals(index, keyTable.findIndex(buffer, 2, 2 + name.length()));
+      assertSame(name, keyTable.key(index));
+      index++;
+    }
+    var buffer = "property200 Ab c".toCharArray();
+    assertAll(
+        () -> assertEquals(names.size(), keyTable.size()),
+        () -> assertEquals(-1, keyTable.findIndex(buffer, 0, 11)),
+        () -> assertEquals(-1, keyTable.findIndex(buffer, 12, 14)),
+        () -> assertEquals(-1, keyTable.findIndex(buffer, 15, 16)),
+        () -> assertEquals(-1, KeyTable.of(Set.of()).findIndex(buffer, 15, 16))
+    );
+  }
+
+  @Test
+  public void keyTableSendsTheKeyIndexes() {
+    var keyTable = KeyTable.of(new LinkedHashSet<>(List.of("name", "tags", "address", "age")));
+    var text = """
+        { "age": 42, "unknown": 1, "n\\u0061me": "Bob", "tags": [1, 2], "address": { "age": 3 }, "name": "Ana" }
+        """;
+    var events = new ArrayList<String>();
+    var visitor = new JSONVisitor() {
+      @Override
+      public KeyTable keyTable() {
+        return keyTable;
+      }
+      @Override
+      public void value(String key, int keyIndex, Object value) {
+        events.add(key + "=" + keyIndex);
+      }
+      @Override
+      public void value(String key, int keyIndex, int value) {
+        events.add(key + "=" + keyIndex);
+      }
+      @Override
+      public void startObject(String key, int keyIndex) {
+        events.add("{" + key + "=" + keyIndex);
+      }
+      @Override
+      public void endObject(String key, int keyIndex) {
+        events.add("}" + key + "=" + keyIndex);
+      }
+      @Override
+      public void startArray(String key, int keyIndex) {
+        events.add("[" + key + "=" + keyIndex);
+      }
+      @Override
+      public void endArray(String key, int keyIndex) {
+        events.add("]" + key + "=" + keyIndex);
+      }
+      @Override
+      public void value(String key, Object value) { fail(); }
+      @Override
+      public void startObject(String key) { fail(); }
+      @Override
+      public void endObject(String key) { fail(); }
+      @Override
+      public void startArray(String key) { fail(); }
+      @Override
+      public void endArray(String key) { fail(); }
+    };
+    var expected = List.of("{null=-1", "age=3", "unknown=-1", "name=-1", "[tags=1", "null=-1", "null=-1", "]tags=1",
+        "{address=2", "age=3", "}address=2", "name=0", "}null=-1");
+    ToyJSONParser.parse(text, visitor);
+    assertEquals(expected, events);
+    events.clear();
+    ToyJSONParser.parse(MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8)), visitor);
+    assertEquals(expected, events);
+  }
+
+  @Test
+  public void keyTableOfKeysWithTheSameHash() {
+    // a leading zero character does not change the hash whatever the multiplier
+    assertNull(KeyTable.of(Set.of("a", "\u0000a")));
+  }
+
+  @Test
+  public void parseUtf8() {
+    assertAll(
+        () -> assertEquals(Map.of(), asJavaUtf8("{}")),
+        () -> assertEquals(List.of(), asJavaUtf8(" [ ] ")),
+        () -> assertEquals(Map.of(
+            "key1", false,
+            "key2", true,
+            "key3", 123,
+            "key4", -145.4e2,
+            "key5", "string",
+            "key6", List.of(1, Map.of("a", "b"))
+        ), asJavaUtf8("""
+            {
+              "key1": false,
+              "key2": true,
+              "key3": 123,
+              "key4": -145.4e2,
+              "key5": "string",
+              "key6": [1, { "a": "b" }]
+            }
+            """)),
+        () -> assertEquals(new HashMap<String, Object>() {{
+          put("foo", null);
+        }}, asJavaUtf8("""
+            { "foo": null }
+            """))
+    );
+  }
+
+  @Test
+  public void parseUtf8NonASCII() {
+    assertAll(
+        () -> assertEquals(Map.of("clé", "été", "日本", "語"), asJavaUtf8("""
+            { "clé": "été", "日本": "語" }
+            """)),
+        () -> assertEquals(List.of("\uD83D\uDE00", "a\uD83D\uDE00b"), asJavaUtf8("""
+            [ "\uD83D\uDE00", "a\uD83D\uDE00b" ]
+            """))
+    );
+  }
+
+  @Test
+  public void parseUtf8Escapes() {
+    assertEquals(List.of("\"\\/\b\f\n\r\t", "\u00e9\u65e5", "é\n日"), asJavaUtf8("""
+        [ "\\"\\\\\\/\\b\\f\\n\\r\\t", "\\u00e9\\u65e5", "é\\n日" ]
+        """));
+  }
+
+  @Test
+  public void parseSpecialCharactersAtEveryPositionOfAWord() {
+    // the content of a string is scanned 4 chars at a time
+    var specials = Map.of("\\\"", "\"", "\\\\", "\\", "\\n", "\n", "\u2222", "\u2222", "\u225c", "\u225c", "\u0120", "\u0120", "😀", "😀");
+    var values = new ArrayList<Object>();
+    var skipVisitor = new JSONVisitor() {
+      @Override
+      public boolean accept(String key) {
+        return key.equals("keep");
+      }
+      @Override
+      public void value(String key, Object value) {
+        values.add(value);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    };
+    for (var i = 0; i < 12; i++) {
+      var prefix = "a".repeat(i);
+      for (var tail = 0; tail < 6; tail++) {
+        var suffix = "b".repeat(tail);
+        for (var special : specials.entrySet()) {
+          var content = prefix + special.getKey() + suffix;
+          var text = "[ \"" + content + "\", \"" + prefix + "\" ]";
+          var expected = List.of(prefix + special.getValue() + suffix, prefix);
+          assertAll(
+              () -> assertEquals(expected, asJava(text), text),
+              () -> assertEquals(expected, asJava(visitor -> ToyJSONParser.parse(new StringReader(text), visitor)), text)
+          );
+          values.clear();
+          ToyJSONParser.parse("{ \"skip\": [ \"" + content + "\", \"]\" ], \"keep\": 1 }", skipVisitor);
+          assertEquals(List.of(1), values, content);
+        }
+        var control = "[ \"" + prefix + "\u0001" + suffix + "\" ]";
+        assertThrows(IllegalStateException.class, () -> asJava(control), control);
+      }
+    }
+  }
+
+  @Test
+  public void parseUtf8SpecialCharactersAtEveryPositionOfAWord() {
+    // the content of a string is scanned 8 bytes at a time
+    for (var i = 0; i < 24; i++) {
+      var prefix = "a".repeat(i);
+      for (var special : List.of("\\\"", "\\\\", "\\n", "é", "日", "😀", "\u007f")) {
+        var text = "[ \"" + prefix + special + "b".repeat(i) + "\", \"" + prefix + "\" ]";
+        assertEquals(asJava(text), asJavaUtf8(text), text);
+      }
+      var control = "[ \"" + prefix + "\u0001" + "b".repeat(i) + "\" ]";
+      assertThrows(IllegalStateException.class, () -> asJavaUtf8(control), control);
+    }
+  }
+
+  @Test
+  public void parseUtf8SameAsParse() {
+    var text = """
+        { "name": "Zoé", "values": [1, 2.5, -3, 1e10, true, null], "nested": { "日本": [ {} ] } }
+        """;
+    assertEquals(asJava(text), asJavaUtf8(text));
+  }
+
+  @Test
+  public void parseUtf8InvalidUTF8() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8(new byte[] { '[', '"', (byte) 0xC0, (byte) 0xAF, '"', ']' })),  // overlong
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8(new byte[] { '[', '"', (byte) 0x80, '"', ']' })),  // lone continuation
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8(new byte[] { '[', '"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"', ']' })),  // surrogate
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8(new byte[] { '[', '"', (byte) 0xE6, (byte) 0x97, '"', ']' })),  // truncated
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8(new byte[] { '[', '"', (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80, '"', ']' }))  // above U+10FFFF
+    );
+  }
+
+  @Test
+  public void parseUtf8InvalidJSON() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8("")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8("{ \"a\": }")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8("[ 1, ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8("[ \"abc ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8("[ 01 ]"))
+    );
+  }
+
+  @Test
+  public void parseUtf8KeyTable() {
+    var keyTable = KeyTable.of(Set.of("name", "clé"));
+    var name = keyTable.key(keyTable.findIndex("name".toCharArray(), 0, 4));
+    var keys = new ArrayList<String>();
+    ToyJSONParser.parse(MemorySegment.ofArray("""
+        { "name": "Bob", "clé": 1, "unknown": 2 }
+        """.getBytes(StandardCharsets.UTF_8)), new JSONVisitor() {
+      @Override
+      public KeyTable keyTable() {
+        return keyTable;
+      }
+      @Override
+      public void value(String key, Object value) {
+        keys.add(key);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    assertAll(
+        () -> assertEquals(List.of("name", "clé", "unknown"), keys),
+        () -> assertSame(name, keys.get(0))
+    );
+  }
+
+  @Test
+  public void pushParse() {
+    var text = """
+        {
+          "name": "Zoé \\"日本\\" \\u00e9\\n",
+          "values": [1, -2.5e3, 12345678901, true, false, null, [], {}],
+          "nested": { "a": [ { "b": [ "\uD83D\uDE00" ] } ] }
+        }
+        """;
+    var expected = asJava(text);
+    for (var chunkSize = 1; chunkSize <= text.length(); chunkSize++) {
+      assertEquals(expected, asJavaPush(text, chunkSize), "chunk size " + chunkSize);
+    }
+  }
+
+  @Test
+  public void pushParseALargeString() {
+    var large = "a\\\"".repeat(10_000);
+    assertEquals(List.of("a\"".repeat(10_000)), asJavaPush("[\"" + large + "\"]", 1_000));
+  }
+
+  @Test
+  public void pushParseTokensAfterAPendingToken() {
+    var text = IntStream.range(0, 10_000)
+        .mapToObj(i -> "{\"id\": " + i + ", \"name\": \"n\\\"" + i + "\", \"valid\": " + (i % 2 == 0) + "}")
+        .collect(joining(", ", "[", "]"));
+    var expected = asJava(text);
+    for (var chunkSize : new int[] { 7, 100, 1_000, 1 << 16 }) {
+      assertEquals(expected, asJavaPush(text, chunkSize), "chunk size " + chunkSize);
+    }
+  }
+
+  @Test
+  public void pushParseErrorLocation() {
+    assertAll(
+        () -> assertEquals("no token recognized at 8, unknown byte 0x78",
+            assertThrows(IllegalStateException.class, () -> asJavaPush("[ 1, 2, x ]", 3)).getMessage()),
+        () -> assertEquals("no token recognized at 15, unknown byte 0x78",
+            assertThrows(IllegalStateException.class, () -> asJavaPush("[ 1, 2345, truex ]", 3)).getMessage()),
+        () -> assertEquals("invalid control character in string at 11",
+            assertThrows(IllegalStateException.class, () -> asJavaPush("[ \"abc\", \"d\u0001\" ]", 4)).getMessage())
+    );
+  }
+
+  @Test
+  public void pushParseInvalid() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("", 1)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("{ \"a\": 1", 3)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("[ 1 2 ]", 2)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("{ \"a\" 1 }", 2)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("[ tru ]", 2)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("[ \"abc ]", 2)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("[] []", 1)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("[] tr", 1)),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaPush("1", 1))
+    );
+  }
+
+  @Test
+  public void pushParseClosed() {
+    var parser = new ToyJSONParser.PushParser(new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {}
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    parser.feed(ByteBuffer.wrap("[1]".getBytes(StandardCharsets.UTF_8)));
+    parser.finish();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, parser::finish),
+        () -> assertThrows(IllegalStateException.class, () -> parser.feed(ByteBuffer.allocate(0)))
+    );
+  }
+
+  @Test
+  public void pushParseSkipAndKeyTable() {
+    var keyTable = KeyTable.of(Set.of("name"));
+    var name = keyTable.key(keyTable.findIndex("name".toCharArray(), 0, 4));
+    var events = new ArrayList<Object>();
+    var parser = new ToyJSONParser.PushParser(new JSONVisitor() {
+      @Override
+      public KeyTable keyTable() {
+        return keyTable;
+      }
+      @Override
+      public boolean accept(String key) {
+        return key.equals("name");
+      }
+      @Override
+      public void value(String key, Object value) {
+        events.add(key);
+        events.add(value);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    var bytes = """
+        { "skipped": [ { "name": "x", "y": [ "]" ] } ], "name": "Bob", "other": 3 }
+        """.getBytes(StandardCharsets.UTF_8);
+    for (var b : bytes) {
+      parser.feed(ByteBuffer.wrap(new byte[] { b }));
+    }
+    parser.finish();
+    assertAll(
+        () -> assertEquals(List.of("name", "Bob"), events),
+        () -> assertSame(name, events.get(0))
+    );
+  }
+
+  private static JSONVisitor depthVisitor(int[] maxDepth) {
+    return new JSONVisitor() {
+      private int depth;
+
+      @Override
+      public void value(String key, Object value) {}
+      @Override
+      public void startObject(String key) {
+        maxDepth[0] = Math.max(maxDepth[0], ++depth);
+      }
+      @Override
+      public void endObject(String key) {
+        depth--;
+      }
+      @Override
+      public void startArray(String key) {
+        maxDepth[0] = Math.max(maxDepth[0], ++depth);
+      }
+      @Override
+      public void endArray(String key) {
+        depth--;
+      }
+    };
+  }
+
+  @Test
+  public void parseDeeplyNestedWithoutRecursion() {
+    var text = "[{\"a\":".repeat(100_000) + "1" + "}]".repeat(100_000);
+    var maxDepth = new int[1];
+    new ToyJSONParser.Session(200_000, Long.MAX_VALUE).parse(text, depthVisitor(maxDepth));
+    assertEquals(200_000, maxDepth[0]);
+  }
+
+  @Test
+  public void parseMaxDepth() {
+    var text = "[".repeat(100_000) + "]".repeat(100_000);
+    var bytes = MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8));
+    var session = new ToyJSONParser.Session(10, Long.MAX_VALUE);
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.parse(text, depthVisitor(new int[1]))),
+        () -> assertThrows(IllegalStateException.class, () -> session.parse(text, depthVisitor(new int[1]))),
+        () -> assertThrows(IllegalStateException.class, () -> session.parse(new StringReader(text), depthVisitor(new int[1]))),
+        () -> assertThrows(IllegalStateException.class, () -> session.parse(bytes, depthVisitor(new int[1]))),
+        () -> session.parse("[".repeat(10) + "]".repeat(10), depthVisitor(new int[1]))
+    );
+  }
+
+  @Test
+  public void parseMaxDepthOfASkippedValue() {
+    var text = "{ \"skip\": " + "[".repeat(100) + "]".repeat(100) + ", \"keep\": 1 }";
+    var keys = new ArrayList<String>();
+    new ToyJSONParser.Session(2, Long.MAX_VALUE).parse(text, new JSONVisitor() {
+      @Override
+      public boolean accept(String key) {
+        return key.equals("keep");
+      }
+      @Override
+      public void value(String key, Object value) {
+        keys.add(key);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    });
+    assertEquals(List.of("keep"), keys);
+  }
+
+  @Test
+  public void parseMaxSize() {
+    var text = "[ 1, 2, 3 ]";
+    var bytes = MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8));
+    var session = new ToyJSONParser.Session(10, text.length() - 1);
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> session.parse(text, depthVisitor(new int[1]))),
+        () -> assertThrows(IllegalStateException.class, () -> session.parse(new StringReader(text), depthVisitor(new int[1]))),
+        () -> assertThrows(IllegalStateException.class, () -> session.parse(bytes, depthVisitor(new int[1]))),
+        () -> new ToyJSONParser.Session(10, text.length()).parse(text, depthVisitor(new int[1]))
+    );
+  }
+
+  @Test
+  public void pushParseLimits() {
+    var deep = ByteBuffer.wrap("[".repeat(100).getBytes(StandardCharsets.UTF_8));
+    var large = ByteBuffer.wrap("[ 1, 2, 3 ]".getBytes(StandardCharsets.UTF_8));
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> new ToyJSONParser.PushParser(depthVisitor(new int[1]), 10, Long.MAX_VALUE).feed(deep)),
+        () -> assertThrows(IllegalStateException.class, () -> new ToyJSONParser.PushParser(depthVisitor(new int[1]), 10, 10).feed(large))
+    );
+  }
+
+  @Test
+  public void parseTrailingContent() {
+    for (var text : List.of("{ \"a\": 1 } garbage", "{ \"a\": 1 } { \"a\": 2 }", "[ 1 ] ]", "[ 1 ] 2")) {
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> asJava(text), text),
+          () -> assertThrows(IllegalStateException.class, () -> asJava(visitor -> ToyJSONParser.parse(new StringReader(text), visitor)), text),
+          () -> assertThrows(IllegalStateException.class, () -> asJavaUtf8(text), text),
+          () -> assertThrows(IllegalStateException.class, () -> asJavaPush(text, 3), text),
+          () -> assertThrows(IllegalStateException.class, () -> ToyJSONParser.index(text), text)
+      );
+    }
+  }
+
+  @Test
+  public void parseTrailingWhitespaces() {
+    var text = "{ \"a\": 1 } \r\n\t ";
+    assertAll(
+        () -> assertEquals(Map.of("a", 1), asJava(text)),
+        () -> assertEquals(Map.of("a", 1), asJava(visitor -> ToyJSONParser.parse(new StringReader(text), visitor))),
+        () -> assertEquals(Map.of("a", 1), asJavaUtf8(text)),
+        () -> assertEquals(Map.of("a", 1), asJavaPush(text, 3)),
+        () -> assertEquals(12, ToyJSONParser.index(text).length)
+    );
+  }
+}